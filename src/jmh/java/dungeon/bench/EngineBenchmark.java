@@ -0,0 +1,190 @@
+package dungeon.bench;
+
+import dungeon.engine.Direction;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Grid;
+import dungeon.engine.LevelGenerator;
+import dungeon.engine.LevelPool;
+import dungeon.engine.MoveResult;
+import dungeon.engine.SaveCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regression baseline for the engine's hot paths at several difficulties.
+ * Run with {@code ./gradlew jmh}; the gc profiler is switched on in
+ * build.gradle so every result also reports bytes allocated per operation.
+ * Ranged attack lookups are covered by {@link RangedAttackBenchmark} and
+ * score submission by {@link LeaderboardBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+    // Right, then left: never hits a wall from the start square, so every call is a real move
+    private static final int[] MOVES_DX = {1, -1};
+    private static final Direction[] MOVES = {Direction.RIGHT, Direction.LEFT};
+
+    @Param({"0", "3", "6", "10"})
+    public int difficulty;
+
+    private long seed;
+    private SplittableRandom random;
+    private GameEngine engine;
+    private GameEngine historyEngine;
+    private int move;
+
+    private GameEngine saved;
+    private ByteBuffer encoded;
+    private byte[] serialized;
+    private Path file;
+
+    private GameEngine scored;
+    private LevelPool pool;
+
+    @Setup
+    public void setUp() throws IOException {
+        random = new SplittableRandom(42);
+        engine = GameEngine.headless(difficulty, seed++);
+        historyEngine = GameEngine.headless(difficulty, seed++);
+        historyEngine.setHistoryLimit(1000);
+
+        // A mid-game engine to save and load
+        saved = GameEngine.headless(difficulty, 7L);
+        for (int i = 0; i < 30 && !saved.isGameOver() && !saved.isGameWon(); i++) {
+            saved.movePlayer(MOVES_DX[i & 1], 0);
+        }
+        encoded = SaveCodec.encode(saved);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(saved);
+        }
+        serialized = bytes.toByteArray();
+        file = Files.createTempFile("bench", ".sav");
+
+        // Formats whatever top scores the shared leaderboard holds
+        scored = new GameEngine(difficulty, 1L);
+        pool = new LevelPool(DungeonConfig.CLASSIC, Grid.Backend.PACKED, 64);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        pool.close();
+    }
+
+    @Benchmark
+    public GameEngine construct() {
+        return GameEngine.headless(difficulty, seed++);
+    }
+
+    // Faster than construct only while the background thread keeps up; see the pool's hit count
+    @Benchmark
+    public GameEngine constructFromPool() {
+        return new GameEngine(difficulty, pool);
+    }
+
+    @Benchmark
+    public Grid generateLevel() {
+        return LevelGenerator.generate(DungeonConfig.CLASSIC, Grid.Backend.PACKED, 1, difficulty, random);
+    }
+
+    @Benchmark
+    public Grid generateLevelObjectBackend() {
+        return LevelGenerator.generate(DungeonConfig.CLASSIC, Grid.Backend.OBJECT, 1, difficulty, random);
+    }
+
+    // Worst case for rejection sampling: a hurt player on level 2, where difficulty has gone up by 2
+    @Benchmark
+    public Grid generateLevelSolvable() {
+        return LevelGenerator.generateSolvable(DungeonConfig.CLASSIC, Grid.Backend.PACKED, 2, difficulty + 2,
+                random.nextLong(), 4, 60).grid();
+    }
+
+    // Includes a fresh engine every time a game ends, roughly once per 100 moves
+    @Benchmark
+    public boolean movePlayer() {
+        if (engine.isGameOver() || engine.isGameWon()) {
+            engine = GameEngine.headless(difficulty, seed++);
+        }
+        return engine.movePlayer(MOVES_DX[move++ & 1], 0);
+    }
+
+    // The same walk through the fast path, which logs nothing; bytes/op should be zero between games
+    @Benchmark
+    public int move() {
+        if (engine.isGameOver() || engine.isGameWon()) {
+            engine = GameEngine.headless(difficulty, seed++);
+        }
+        MoveResult r = engine.move(MOVES[move++ & 1]);
+        return r.getFlags();
+    }
+
+    // Same walk with undo history on; the gc profiler's bytes/op is the cost of one snapshot
+    @Benchmark
+    public boolean movePlayerWithHistory() {
+        if (historyEngine.isGameOver() || historyEngine.isGameWon()) {
+            historyEngine = GameEngine.headless(difficulty, seed++);
+            historyEngine.setHistoryLimit(1000);
+        }
+        return historyEngine.movePlayer(MOVES_DX[move++ & 1], 0);
+    }
+
+    @Benchmark
+    public boolean moveAndUndo() {
+        if (historyEngine.isGameOver() || historyEngine.isGameWon()) {
+            historyEngine = GameEngine.headless(difficulty, seed++);
+            historyEngine.setHistoryLimit(1000);
+        }
+        historyEngine.movePlayer(MOVES_DX[move++ & 1], 0);
+        return historyEngine.undo();
+    }
+
+    @Benchmark
+    public GameEngine codecRoundTrip() throws IOException {
+        return SaveCodec.decode(SaveCodec.encode(saved));
+    }
+
+    @Benchmark
+    public GameEngine codecDecode() throws IOException {
+        return SaveCodec.decode(encoded.duplicate());
+    }
+
+    @Benchmark
+    public GameEngine fileRoundTrip() {
+        saved.saveGame(file.toString());
+        return GameEngine.loadGame(file.toString());
+    }
+
+    // The pre-codec save format, kept for comparison
+    @Benchmark
+    public Object javaSerializationRoundTrip() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(serialized.length);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(saved);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return ois.readObject();
+        }
+    }
+
+    @Benchmark
+    public List<String> topScores() {
+        return scored.getTopScores();
+    }
+}
@@ -0,0 +1,61 @@
+package dungeon.bench;
+
+import dungeon.engine.Leaderboard;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score submissions from several threads at once against one shared board,
+ * in memory and backed by a log. Most random scores miss a full top-K table,
+ * which is the path every finished game takes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class LeaderboardBenchmark {
+    @Param({"5", "100"})
+    public int capacity;
+
+    @Param({"false", "true"})
+    public boolean persistent;
+
+    private Leaderboard board;
+    private Path log;
+
+    @State(Scope.Thread)
+    public static class Scores {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int next() { return random.nextInt(1_000_000); }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        if (persistent) {
+            log = Files.createTempFile("bench", ".log");
+            board = Leaderboard.open(log, capacity);
+        } else {
+            board = new Leaderboard(capacity);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        board.close();
+        if (log != null) Files.deleteIfExists(log);
+    }
+
+    @Benchmark
+    public boolean submit(Scores scores) {
+        return board.submit(scores.next());
+    }
+}
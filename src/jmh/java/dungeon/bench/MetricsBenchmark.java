@@ -0,0 +1,57 @@
+package dungeon.bench;
+
+import dungeon.engine.Direction;
+import dungeon.engine.EngineMetrics;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Histogram;
+import dungeon.engine.MoveResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@link EngineMetrics} costs on the move path. With metrics off the
+ * move should match {@code EngineBenchmark.move}; with them on it pays for
+ * two clock reads and a few uncontended adds. {@code record} is one
+ * histogram update, the largest part of that.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private static final Direction[] MOVES = {Direction.RIGHT, Direction.LEFT};
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private GameEngine engine;
+    private Histogram histogram;
+    private long seed;
+    private int move;
+
+    @Setup
+    public void setUp() {
+        EngineMetrics.setEnabled(enabled);
+        engine = GameEngine.headless(3, seed++);
+        histogram = new Histogram();
+    }
+
+    @TearDown
+    public void tearDown() {
+        EngineMetrics.setEnabled(false);
+    }
+
+    @Benchmark
+    public MoveResult move() {
+        if (engine.isGameOver() || engine.isGameWon()) engine = GameEngine.headless(3, seed++);
+        return engine.move(MOVES[move++ & 1]);
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.record(++seed & 0xFFFF);
+    }
+}
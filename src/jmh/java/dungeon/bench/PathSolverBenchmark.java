@@ -0,0 +1,52 @@
+package dungeon.bench;
+
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.Grid;
+import dungeon.engine.LevelGenerator;
+import dungeon.engine.PathSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of planning a full route from the start square to the ladder on a
+ * freshly generated level, as the map grows. The solver is reused between
+ * calls, as a bot would, so after warm-up only the route itself is allocated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathSolverBenchmark {
+    @Param({"12", "64", "256", "1024"})
+    public int size;
+
+    @Param({"3"})
+    public int difficulty;
+
+    private DungeonConfig config;
+    private Grid grid;
+    private PathSolver solver;
+    private PathSolver shortest;
+
+    @Setup
+    public void setUp() {
+        config = DungeonConfig.ofSize(size, size);
+        grid = LevelGenerator.generate(config, Grid.Backend.PACKED, 1, difficulty, new SplittableRandom(42));
+        solver = new PathSolver();
+        shortest = new PathSolver(PathSolver.Weights.SHORTEST);
+    }
+
+    @Benchmark
+    public PathSolver.Route solve() {
+        return solver.solve(grid, config.startX(), config.startY(), 10, config.stepBudget());
+    }
+
+    @Benchmark
+    public PathSolver.Route solveShortest() {
+        return shortest.solve(grid, config.startX(), config.startY(), 10, config.stepBudget());
+    }
+}
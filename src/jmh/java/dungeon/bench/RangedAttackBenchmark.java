@@ -0,0 +1,84 @@
+package dungeon.bench;
+
+import dungeon.engine.Cell;
+import dungeon.engine.Grid;
+import dungeon.engine.PositionIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding the ranged mutants that can hit the player after one move:
+ * the old full-map scan against the row/column position index, as the map
+ * grows. Mutants are scattered at {@code difficulty} per 100 squares, the
+ * density the level generator uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangedAttackBenchmark {
+    private static final int REACH = 2;
+
+    @Param({"12", "64", "256", "1024"})
+    public int size;
+
+    @Param({"0", "3", "10"})
+    public int difficulty;
+
+    private Grid grid;
+    private PositionIndex index;
+    private int[] playerX;
+    private int[] playerY;
+    private int move;
+    private int visited;
+    private final PositionIndex.Visitor counter = (x, y) -> visited++;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        grid = Grid.Backend.PACKED.create(size, size);
+        index = new PositionIndex(size, size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean mutant = random.nextInt(100) < difficulty;
+                grid.setType(x, y, mutant ? Cell.Type.RANGED_MUTANT : Cell.Type.EMPTY);
+                if (mutant) index.add(x, y);
+            }
+        }
+        // A fixed walk of player positions so every call sees a different neighbourhood
+        playerX = new int[1024];
+        playerY = new int[1024];
+        for (int i = 0; i < playerX.length; i++) {
+            playerX[i] = random.nextInt(size);
+            playerY[i] = random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public int fullScan() {
+        int i = move++ & 1023;
+        int px = playerX[i];
+        int py = playerY[i];
+        int hits = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (grid.getType(x, y) == Cell.Type.RANGED_MUTANT
+                        && ((Math.abs(x - px) == REACH && y == py) || (Math.abs(y - py) == REACH && x == px))) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int indexed() {
+        int i = move++ & 1023;
+        index.forEachInCross(playerX[i], playerY[i], REACH, REACH, counter);
+        return visited;
+    }
+}
@@ -0,0 +1,66 @@
+package dungeon.bench;
+
+import dungeon.engine.Direction;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.PathSolver;
+import dungeon.engine.Replay;
+import dungeon.sim.ReplayVerifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking one recorded classic game, from its encoded bytes or from
+ * a decoded replay, against playing the same moves one at a time through
+ * {@link GameEngine#movePlayer(Direction)} with every event logged. Each
+ * operation includes building the engine and its first level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+    private static final Set<DungeonConfig> ACCEPTED = Set.of(DungeonConfig.CLASSIC);
+
+    @Param({"3"})
+    public int difficulty;
+
+    private Replay replay;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setUp() {
+        GameEngine engine = GameEngine.headless(difficulty, 42L);
+        engine.startRecording();
+        PathSolver solver = new PathSolver();
+        Direction d;
+        while (!engine.isGameOver() && !engine.isGameWon() && (d = solver.advise(engine)) != null) {
+            engine.movePlayer(d);
+        }
+        replay = engine.getReplay();
+        encoded = replay.encode();
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return ReplayVerifier.verify(replay, ACCEPTED);
+    }
+
+    @Benchmark
+    public boolean decodeAndVerify() throws IOException {
+        return ReplayVerifier.verify(Replay.decode(encoded.duplicate()), ACCEPTED);
+    }
+
+    @Benchmark
+    public int replayMoveByMove() {
+        GameEngine engine = GameEngine.headless(replay.config(), replay.difficulty(), replay.seed());
+        for (int i = 0; i < replay.moveCount(); i++) engine.movePlayer(replay.move(i));
+        return engine.getPlayer().getScore();
+    }
+}
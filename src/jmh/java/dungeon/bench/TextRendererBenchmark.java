@@ -0,0 +1,47 @@
+package dungeon.bench;
+
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.Grid;
+import dungeon.engine.LevelGenerator;
+import dungeon.engine.TextRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of drawing one text-mode frame as the player walks back and forth,
+ * written to a stream that discards it: the full frame in plain mode, and
+ * just the two changed squares in ANSI mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextRendererBenchmark {
+    @Param({"12", "256"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean ansi;
+
+    private Grid grid;
+    private TextRenderer renderer;
+    private int frame;
+
+    @Setup
+    public void setUp() {
+        grid = LevelGenerator.generate(DungeonConfig.ofSize(size, size), Grid.Backend.PACKED, 1, 3,
+                new SplittableRandom(42));
+        renderer = new TextRenderer(OutputStream.nullOutputStream(), ansi);
+    }
+
+    @Benchmark
+    public void render() {
+        renderer.line("> You moved right");
+        renderer.render(grid, 1 + (frame++ & 1), size - 2);
+    }
+}
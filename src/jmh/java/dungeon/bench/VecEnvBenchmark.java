@@ -0,0 +1,53 @@
+package dungeon.bench;
+
+import dungeon.engine.DungeonConfig;
+import dungeon.sim.DungeonEnv;
+import dungeon.sim.VecEnv;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched environment stepping with random actions. One operation steps every
+ * env once; throughput times {@code envs} is env-steps per second. Episodes
+ * that end are reset inside the step, as in training.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VecEnvBenchmark {
+    @Param({"16", "1024", "16384"})
+    public int envs;
+
+    private VecEnv vec;
+    private int[] obs;
+    private int[][] actions;
+    private float[] rewards;
+    private boolean[] dones;
+    private int round;
+
+    @Setup
+    public void setUp() {
+        vec = new VecEnv(DungeonConfig.CLASSIC, 3, envs);
+        obs = new int[envs * vec.observationSize()];
+        rewards = new float[envs];
+        dones = new boolean[envs];
+        // Pre-drawn so the benchmark measures stepping, not the action source
+        SplittableRandom random = new SplittableRandom(42);
+        actions = new int[64][envs];
+        for (int[] row : actions) {
+            for (int i = 0; i < envs; i++) row[i] = random.nextInt(DungeonEnv.ACTIONS);
+        }
+        vec.reset(42L, obs);
+    }
+
+    @Benchmark
+    public boolean[] step() {
+        vec.step(actions[round++ & 63], obs, rewards, dones);
+        return dones;
+    }
+}
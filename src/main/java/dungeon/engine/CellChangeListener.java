@@ -0,0 +1,14 @@
+package dungeon.engine;
+
+/**
+ * Told about every square the engine changes, so a view can redraw just those
+ * squares instead of the whole map. A player move reports both the square left
+ * and the square entered.
+ */
+public interface CellChangeListener {
+
+    void cellChanged(int x, int y);
+
+    /** A new level was generated; everything, including the map size, may differ. */
+    void levelChanged();
+}
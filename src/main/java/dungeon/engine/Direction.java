@@ -0,0 +1,36 @@
+package dungeon.engine;
+
+/**
+ * The four moves accepted by the engine, keyed the same way as the text UI.
+ */
+public enum Direction {
+    UP('U', 0, -1),
+    DOWN('D', 0, 1),
+    LEFT('L', -1, 0),
+    RIGHT('R', 1, 0);
+
+    private final char key;
+    private final int dx;
+    private final int dy;
+
+    Direction(char key, int dx, int dy) {
+        this.key = key;
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    public char getKey() { return key; }
+    public int getDx() { return dx; }
+    public int getDy() { return dy; }
+
+    // Returns null for anything other than U/D/L/R (case-insensitive)
+    public static Direction fromKey(char key) {
+        return switch (Character.toUpperCase(key)) {
+            case 'U' -> UP;
+            case 'D' -> DOWN;
+            case 'L' -> LEFT;
+            case 'R' -> RIGHT;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package dungeon.engine;
+
+import java.io.Serializable;
+
+/**
+ * Shape of a dungeon: map size, number of levels, how densely items are
+ * scattered over the floor and how many steps the player gets for the whole
+ * game. Densities are fractions of the interior squares; ranged mutants are
+ * placed at {@code difficulty} per 100 interior squares.
+ *
+ * @param width         map width including the outer wall, 4 to {@value #MAX_SIDE}
+ * @param height        map height including the outer wall, 4 to {@value #MAX_SIDE}; the map may
+ *                      hold at most {@value #MAX_SQUARES} squares
+ * @param levels        levels to clear, 1 to {@value #MAX_LEVELS}; the ladder on the last one wins the game
+ * @param goldDensity   share of interior squares holding gold
+ * @param trapDensity   share holding traps
+ * @param meleeDensity  share holding melee mutants
+ * @param potionDensity share holding health potions
+ * @param stepBudget    steps for the whole game
+ * @param solvable      regenerate levels until the ladder can be reached even if every hit lands;
+ *                      see {@link LevelGenerator#generateSolvable}
+ */
+public record DungeonConfig(int width, int height, int levels,
+                            double goldDensity, double trapDensity, double meleeDensity, double potionDensity,
+                            int stepBudget, boolean solvable) implements Serializable {
+
+    /** The original 12x12, two-level dungeon: 5 gold, 5 traps, 3 melee mutants, 2 potions, 100 steps. */
+    public static final DungeonConfig CLASSIC = new DungeonConfig(12, 12, 2, 0.05, 0.05, 0.03, 0.02, 100);
+
+    // Event log positions are packed as two signed 16-bit halves
+    public static final int MAX_SIDE = Short.MAX_VALUE;
+    // Per-square arrays, the path solver's 11 per square included, must stay within an int index
+    public static final int MAX_SQUARES = 1 << 27;
+    // Saves and replays keep the level and its difficulty in a byte each; difficulty starts at most
+    // at 10 and rises by 2 a level, so the last level is at most 208
+    public static final int MAX_LEVELS = 100;
+
+    public DungeonConfig(int width, int height, int levels,
+                         double goldDensity, double trapDensity, double meleeDensity, double potionDensity,
+                         int stepBudget) {
+        this(width, height, levels, goldDensity, trapDensity, meleeDensity, potionDensity, stepBudget, false);
+    }
+
+    public DungeonConfig {
+        if (width < 4 || height < 4 || width > MAX_SIDE || height > MAX_SIDE) {
+            throw new IllegalArgumentException("Map must be between 4x4 and " + MAX_SIDE + "x" + MAX_SIDE
+                    + ", got " + width + "x" + height);
+        }
+        if ((long) width * height > MAX_SQUARES) {
+            throw new IllegalArgumentException("Map may have at most " + MAX_SQUARES + " squares, got "
+                    + width + "x" + height);
+        }
+        if (levels < 1 || levels > MAX_LEVELS) {
+            throw new IllegalArgumentException("Need between 1 and " + MAX_LEVELS + " levels, got " + levels);
+        }
+        if (stepBudget < 1) throw new IllegalArgumentException("Step budget must be positive, got " + stepBudget);
+        if (goldDensity < 0 || trapDensity < 0 || meleeDensity < 0 || potionDensity < 0
+                || goldDensity + trapDensity + meleeDensity + potionDensity > 1) {
+            throw new IllegalArgumentException("Item densities must be non-negative and sum to at most 1");
+        }
+    }
+
+    /**
+     * Classic densities and level count on a map of the given size, with the
+     * step budget scaled the way the classic map's 100 steps relate to its
+     * 10x10 interior.
+     */
+    public static DungeonConfig ofSize(int width, int height) {
+        return new DungeonConfig(width, height, CLASSIC.levels,
+                CLASSIC.goldDensity, CLASSIC.trapDensity, CLASSIC.meleeDensity, CLASSIC.potionDensity,
+                5 * ((width - 2) + (height - 2)));
+    }
+
+    public DungeonConfig withSolvable(boolean solvable) {
+        return new DungeonConfig(width, height, levels, goldDensity, trapDensity, meleeDensity, potionDensity,
+                stepBudget, solvable);
+    }
+
+    public int interiorCells() {
+        return (width - 2) * (height - 2);
+    }
+
+    public int count(double density) {
+        return (int) Math.round(density * interiorCells());
+    }
+
+    public int rangedMutants(int difficulty) {
+        return (int) Math.round(difficulty * interiorCells() / 100.0);
+    }
+
+    // The player starts every level just above the entry, in the bottom-left corner
+    public int startX() { return 1; }
+    public int startY() { return height - 2; }
+}
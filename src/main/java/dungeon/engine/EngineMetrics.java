@@ -0,0 +1,166 @@
+package dungeon.engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters and latency histograms for every {@link GameEngine}
+ * in the JVM. They cover moves, level generation, ranged-attack checks, and
+ * save and load. All recording is done with {@link LongAdder}s, so engines on
+ * different threads do not contend.
+ *
+ * <p>Metrics are off unless the JVM is started with
+ * {@code -Ddungeon.metrics=true} or {@link #setEnabled} is called. While they
+ * are off, each instrumented call site costs one read of a boolean and
+ * nothing else: no clock reads and no writes. Read them with
+ * {@link #snapshot}, or over JMX once {@link #registerMBean} has been called
+ * (it is also called at class load when the property is set).
+ */
+public final class EngineMetrics {
+    public static final String OBJECT_NAME = "dungeon:type=EngineMetrics";
+
+    /** A point-in-time copy of every metric. */
+    public record Snapshot(long moves, long blockedMoves, long rangedAttackChecks, long rangedAttackHits,
+                           Histogram.Snapshot moveNanos, Histogram.Snapshot eventsPerMove,
+                           Histogram.Snapshot levelGenerationNanos, long unsolvableLevels,
+                           Histogram.Snapshot saveNanos, Histogram.Snapshot saveBytes,
+                           Histogram.Snapshot loadNanos, Histogram.Snapshot loadBytes) {
+        @Override
+        public String toString() {
+            return "moves: " + moves + " (" + blockedMoves + " blocked)\n"
+                    + "move ns: " + moveNanos + "\n"
+                    + "events per logged move: " + eventsPerMove + "\n"
+                    + "ranged attack checks: " + rangedAttackChecks + " (" + rangedAttackHits + " hits)\n"
+                    + "level generation ns: " + levelGenerationNanos + "\n"
+                    + "levels kept unsolvable: " + unsolvableLevels + "\n"
+                    + "save ns: " + saveNanos + "\n"
+                    + "save bytes: " + saveBytes + "\n"
+                    + "load ns: " + loadNanos + "\n"
+                    + "load bytes: " + loadBytes;
+        }
+    }
+
+    // Read on every instrumented path; see the class comment
+    static volatile boolean enabled = Boolean.getBoolean("dungeon.metrics");
+
+    private static final LongAdder moves = new LongAdder();
+    private static final LongAdder blockedMoves = new LongAdder();
+    private static final LongAdder rangedChecks = new LongAdder();
+    private static final LongAdder rangedHits = new LongAdder();
+    private static final Histogram moveNanos = new Histogram();
+    private static final Histogram eventsPerMove = new Histogram();
+    private static final Histogram levelNanos = new Histogram();
+    private static final LongAdder unsolvableLevels = new LongAdder();
+    private static final Histogram saveNanos = new Histogram();
+    private static final Histogram saveBytes = new Histogram();
+    private static final Histogram loadNanos = new Histogram();
+    private static final Histogram loadBytes = new Histogram();
+
+    static {
+        if (enabled) registerMBean();
+    }
+
+    private EngineMetrics() {}
+
+    public static boolean isEnabled() { return enabled; }
+
+    /** Turns recording on or off; what was recorded so far is kept. */
+    public static void setEnabled(boolean on) { enabled = on; }
+
+    public static Snapshot snapshot() {
+        return new Snapshot(moves.sum(), blockedMoves.sum(), rangedChecks.sum(), rangedHits.sum(),
+                moveNanos.snapshot(), eventsPerMove.snapshot(), levelNanos.snapshot(), unsolvableLevels.sum(),
+                saveNanos.snapshot(), saveBytes.snapshot(), loadNanos.snapshot(), loadBytes.snapshot());
+    }
+
+    public static void reset() {
+        moves.reset();
+        blockedMoves.reset();
+        rangedChecks.reset();
+        rangedHits.reset();
+        unsolvableLevels.reset();
+        for (Histogram h : new Histogram[]{moveNanos, eventsPerMove, levelNanos, saveNanos, saveBytes,
+                loadNanos, loadBytes}) {
+            h.reset();
+        }
+    }
+
+    /** Registers the {@link EngineMetricsMXBean} with the platform MBean server; repeat calls do nothing. */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(new Bean(), name);
+        } catch (InstanceAlreadyExistsException e) {
+            // registered by another class loader's copy
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    // Recording, called only after checking enabled. events is -1 for a move that logs nothing
+
+    static void moveMade(long nanos, MoveResult result, long events) {
+        moves.increment();
+        if (result.has(MoveResult.BLOCKED)) blockedMoves.increment();
+        moveNanos.record(nanos);
+        if (events >= 0) eventsPerMove.record(events);
+    }
+
+    static void rangedAttackChecked(boolean hit) {
+        rangedChecks.increment();
+        if (hit) rangedHits.increment();
+    }
+
+    static void levelGenerated(long nanos, boolean unsolvable) {
+        levelNanos.record(nanos);
+        if (unsolvable) unsolvableLevels.increment();
+    }
+
+    static void saved(long nanos, long bytes) {
+        saveNanos.record(nanos);
+        saveBytes.record(bytes);
+    }
+
+    static void loaded(long nanos, long bytes) {
+        loadNanos.record(nanos);
+        loadBytes.record(bytes);
+    }
+
+    private static final class Bean implements EngineMetricsMXBean {
+        @Override public boolean isEnabled() { return enabled; }
+        @Override public void setEnabled(boolean on) { enabled = on; }
+
+        @Override public long getMoves() { return moves.sum(); }
+        @Override public long getBlockedMoves() { return blockedMoves.sum(); }
+        @Override public double getMoveLatencyMean() { return moveNanos.snapshot().mean(); }
+        @Override public long getMoveLatencyP50() { return moveNanos.snapshot().percentile(50); }
+        @Override public long getMoveLatencyP99() { return moveNanos.snapshot().percentile(99); }
+        @Override public long getMoveLatencyP999() { return moveNanos.snapshot().percentile(99.9); }
+        @Override public long getMoveLatencyMax() { return moveNanos.snapshot().max(); }
+        @Override public double getEventsPerMove() { return eventsPerMove.snapshot().mean(); }
+
+        @Override public long getRangedAttackChecks() { return rangedChecks.sum(); }
+        @Override public long getRangedAttackHits() { return rangedHits.sum(); }
+
+        @Override public long getLevelsGenerated() { return levelNanos.snapshot().count(); }
+        @Override public long getLevelGenerationP50() { return levelNanos.snapshot().percentile(50); }
+        @Override public long getLevelGenerationP99() { return levelNanos.snapshot().percentile(99); }
+        @Override public long getUnsolvableLevels() { return unsolvableLevels.sum(); }
+
+        @Override public long getSaves() { return saveNanos.snapshot().count(); }
+        @Override public long getSaveLatencyP99() { return saveNanos.snapshot().percentile(99); }
+        @Override public double getSaveSizeMean() { return saveBytes.snapshot().mean(); }
+        @Override public long getLoads() { return loadNanos.snapshot().count(); }
+        @Override public long getLoadLatencyP99() { return loadNanos.snapshot().percentile(99); }
+        @Override public double getLoadSizeMean() { return loadBytes.snapshot().mean(); }
+
+        @Override public String getSummary() { return EngineMetrics.snapshot().toString(); }
+
+        @Override public void reset() { EngineMetrics.reset(); }
+    }
+}
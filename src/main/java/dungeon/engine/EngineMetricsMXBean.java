@@ -0,0 +1,40 @@
+package dungeon.engine;
+
+/**
+ * The JMX view of {@link EngineMetrics}, registered as
+ * {@value EngineMetrics#OBJECT_NAME}. Latencies are in nanoseconds and sizes
+ * in bytes. Each getter reads the live counters.
+ */
+public interface EngineMetricsMXBean {
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+
+    long getMoves();
+    long getBlockedMoves();
+    double getMoveLatencyMean();
+    long getMoveLatencyP50();
+    long getMoveLatencyP99();
+    long getMoveLatencyP999();
+    long getMoveLatencyMax();
+    double getEventsPerMove();
+
+    long getRangedAttackChecks();
+    long getRangedAttackHits();
+
+    long getLevelsGenerated();
+    long getLevelGenerationP50();
+    long getLevelGenerationP99();
+    long getUnsolvableLevels();
+
+    long getSaves();
+    long getSaveLatencyP99();
+    double getSaveSizeMean();
+    long getLoads();
+    long getLoadLatencyP99();
+    double getLoadSizeMean();
+
+    /** A multi-line summary, as printed by {@link EngineMetrics.Snapshot#toString}. */
+    String getSummary();
+
+    void reset();
+}
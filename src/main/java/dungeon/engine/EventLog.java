@@ -0,0 +1,95 @@
+package dungeon.engine;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity ring buffer of game events. Events are stored as primitives
+ * (type, amount, position) and only turned into text when read, so logging a
+ * move costs a few array stores. Every event gets a sequence number, letting a
+ * view fetch just what it has not shown yet; once the buffer wraps, the oldest
+ * events are dropped.
+ */
+public class EventLog implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final EventType[] TYPES = EventType.values();
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /** Receives events without any formatting or allocation. */
+    public interface Visitor {
+        void visit(long sequence, EventType type, int amount, int x, int y, String message);
+    }
+
+    private final byte[] types;
+    private final int[] amounts;
+    private final int[] positions; // x << 16 | y
+    private final String[] messages; // only for MESSAGE events
+    private long next; // sequence number the next event will get
+
+    public EventLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EventLog(int capacity) {
+        types = new byte[capacity];
+        amounts = new int[capacity];
+        positions = new int[capacity];
+        messages = new String[capacity];
+    }
+
+    public void add(EventType type, int amount, int x, int y) {
+        int slot = (int) (next % types.length);
+        types[slot] = (byte) type.ordinal();
+        amounts[slot] = amount;
+        positions[slot] = x << 16 | (y & 0xFFFF);
+        messages[slot] = null;
+        next++;
+    }
+
+    public void add(String message) {
+        add(EventType.MESSAGE, 0, -1, -1);
+        messages[(int) ((next - 1) % types.length)] = message;
+    }
+
+    public int getCapacity() { return types.length; }
+
+    // Sequence number the next event will get; equals the number of events ever added
+    public long getSequence() { return next; }
+
+    // Sequence number of the oldest event still held
+    public long getOldestSequence() { return Math.max(0, next - types.length); }
+
+    public int size() { return (int) (next - getOldestSequence()); }
+
+    /**
+     * Visits every held event with a sequence number of at least {@code since},
+     * oldest first, and returns how many were visited.
+     */
+    public int forEachSince(long since, Visitor visitor) {
+        long from = Math.max(since, getOldestSequence());
+        for (long seq = from; seq < next; seq++) {
+            int slot = (int) (seq % types.length);
+            int pos = positions[slot];
+            visitor.visit(seq, TYPES[types[slot]], amounts[slot], pos >> 16, (short) pos, messages[slot]);
+        }
+        return (int) Math.max(0, next - from);
+    }
+
+    public List<String> formatSince(long since) {
+        List<String> lines = new ArrayList<>((int) Math.max(0, next - Math.max(since, getOldestSequence())));
+        forEachSince(since, (seq, type, amount, x, y, message) -> lines.add(type.format(amount, message)));
+        return lines;
+    }
+
+    public String format(long sequence) {
+        if (sequence < getOldestSequence() || sequence >= next) return null;
+        int slot = (int) (sequence % types.length);
+        return TYPES[types[slot]].format(amounts[slot], messages[slot]);
+    }
+
+    public void clear() {
+        next = 0;
+        java.util.Arrays.fill(messages, null);
+    }
+}
@@ -0,0 +1,56 @@
+package dungeon.engine;
+
+/**
+ * Kinds of entries in the {@link EventLog}. Each knows how to turn its amount
+ * into the sentence shown to the player, so nothing is formatted until someone
+ * actually reads the log.
+ */
+public enum EventType {
+    /** Free text; the message is stored alongside the event. */
+    MESSAGE,
+    GAME_STARTED,       // amount: difficulty
+    LEVEL_GENERATED,    // amount: level
+    HIT_WALL,
+    MOVED,              // amount: Direction ordinal, or -1 for anything else
+    GOLD_PICKED_UP,     // amount: gold gained
+    TRAP_TRIGGERED,     // amount: HP lost
+    POTION_DRUNK,       // amount: HP restored
+    MELEE_DEFEATED,
+    MELEE_HIT_PLAYER,
+    RANGED_DEFEATED,
+    RANGED_HIT_PLAYER,
+    RANGED_ATTACK_HIT,  // amount: HP lost
+    RANGED_ATTACK_MISSED,
+    LEVEL_ADVANCED,     // amount: new level
+    GAME_WON,
+    FINAL_SCORE,        // amount: score
+    GAME_LOST,
+    LEVEL_UNSOLVABLE;   // amount: level
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    public String format(int amount, String message) {
+        return switch (this) {
+            case MESSAGE -> message;
+            case GAME_STARTED -> "Game started! Difficulty: " + amount;
+            case LEVEL_GENERATED -> "Generated Level " + amount;
+            case HIT_WALL -> "You tried to move but hit a wall";
+            case MOVED -> "You moved " + (amount >= 0 && amount < DIRECTIONS.length
+                    ? DIRECTIONS[amount].name().toLowerCase() : "unknown");
+            case GOLD_PICKED_UP -> "You picked up " + amount + " gold!";
+            case TRAP_TRIGGERED -> "You fell into a trap! Lost " + amount + " HP";
+            case POTION_DRUNK -> "You drank a health potion! Restored " + amount + " HP";
+            case MELEE_DEFEATED -> "You defeated a melee mutant!";
+            case MELEE_HIT_PLAYER -> "You were defeated by a melee mutant!";
+            case RANGED_DEFEATED -> "You defeated a ranged mutant!";
+            case RANGED_HIT_PLAYER -> "You were defeated by a ranged mutant!";
+            case RANGED_ATTACK_HIT -> "A ranged mutant attacked! You lost " + amount + " HP";
+            case RANGED_ATTACK_MISSED -> "A ranged mutant attacked, but missed!";
+            case LEVEL_ADVANCED -> "Advanced to Level " + amount + "! Difficulty increased";
+            case GAME_WON -> "CONGRATULATIONS! You escaped the dungeon!";
+            case FINAL_SCORE -> "Final score: " + amount;
+            case GAME_LOST -> "GAME OVER! Score: -1";
+            case LEVEL_UNSOLVABLE -> "No safe route to the ladder was found on Level " + amount;
+        };
+    }
+}
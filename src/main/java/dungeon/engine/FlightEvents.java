@@ -0,0 +1,87 @@
+package dungeon.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for a game's lifecycle, so time spent
+ * generating levels, moving (which covers cell interactions and ranged
+ * attacks) and saving shows up in a recording next to the state it was
+ * spent on. Every event is disabled by default. While one is disabled, its
+ * call site costs a check, and escape analysis removes the unused event
+ * object. Enable them with a recording setting, for example
+ * {@code -XX:StartFlightRecording:+dungeon.LevelGenerated#enabled=true},
+ * or from code with {@code Recording.enable("dungeon.PlayerMoved")}.
+ */
+public final class FlightEvents {
+    private static final String CATEGORY = "Mini Dungeon";
+
+    private FlightEvents() {}
+
+    @Name("dungeon.LevelGenerated")
+    @Label("Level Generated")
+    @Description("A level was built, or taken from a LevelPool, for a game")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class LevelGenerated extends Event {
+        @Label("Level") int level;
+        @Label("Difficulty") int difficulty;
+        @Label("Seed") long seed;
+        @Label("Source") @Description("generated, pooled or prefetched") String source;
+    }
+
+    @Name("dungeon.PlayerMoved")
+    @Label("Player Moved")
+    @Description("One move, from input to the end of its ranged attacks and level change")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class PlayerMoved extends Event {
+        @Label("Level") int level;
+        @Label("Direction") String direction;
+        @Label("Outcome") @Description("The move in words, as in MoveResult.describe") String outcome;
+        @Label("Cell Entered") String cell;
+        @Label("Damage") int damage;
+        @Label("HP") int hp;
+        @Label("Steps Remaining") int stepsRemaining;
+    }
+
+    @Name("dungeon.GameSaved")
+    @Label("Game Saved")
+    @Category(CATEGORY)
+    @Enabled(false)
+    public static final class GameSaved extends Event {
+        @Label("Path") String path;
+        @Label("Size") @DataAmount long bytes;
+    }
+
+    @Name("dungeon.GameLoaded")
+    @Label("Game Loaded")
+    @Category(CATEGORY)
+    @Enabled(false)
+    public static final class GameLoaded extends Event {
+        @Label("Path") String path;
+        @Label("Size") @DataAmount long bytes;
+        @Label("Legacy Format") boolean legacy;
+    }
+
+    @Name("dungeon.GameEnded")
+    @Label("Game Ended")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class GameEnded extends Event {
+        @Label("Won") boolean won;
+        @Label("Score") int score;
+        @Label("Level") int level;
+        @Label("Steps Remaining") int stepsRemaining;
+        @Label("Seed") long seed;
+    }
+}
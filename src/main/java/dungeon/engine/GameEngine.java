@@ -2,31 +2,149 @@ package dungeon.engine;
 
 import dungeon.engine.cells.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class GameEngine implements  Serializable {
     private static final long serialVersionUID = 1L;
-    private Cell[][] map;
+    // Ranged mutants hit the player from exactly this many squares away in a straight line
+    private static final int RANGED_REACH = ThreatMap.REACH;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private DungeonConfig config;
+    private Grid map;
+    private Grid.Backend backend;
     private Player player;
     private int stepsRemaining;
     private int difficulty;
     private int currentLevel;
-    private transient Random random = new Random();
-    private List<ScoreEntry> topScores = new ArrayList<>();
-    private List<String> eventLog = new ArrayList<>();
+    // Every random draw comes from the seed: one stream per level for layout (see LevelGenerator.forGame)
+    // and one for combat, whose position is kept in combatDraws for reloads
+    private long seed;
+    private long combatDraws;
+    private transient SplittableRandom combatRandom;
+    private EventLog eventLog = new EventLog();
     private boolean gameWon = false;
-    private transient  boolean textMode = false;
+    private Cell.Type lastDamageSource;
+    // Text UI output; null unless the game is played in the console
+    private transient TextRenderer renderer;
+    // The shared board unless scores are off, in which case a private one is made on first use
+    private transient Leaderboard leaderboard;
+    private transient CellChangeListener changeListener;
+    // Set for games started from a LevelPool: the first level it handed over and the next one it is building
+    private transient LevelPool levelPool;
+    private transient LevelPool.Level pooledLevel;
+    private transient LevelPool.Pending nextLevel;
+    // Solvable levels were asked for but none was found for this one; see LevelGenerator.generateSolvable
+    private transient boolean levelUnsolvable;
+    // Undo history, off unless setHistoryLimit is called; shadow mirrors the map while it is on
+    private transient ArrayDeque<GameSnapshot> history;
+    private transient int historyLimit;
+    private transient PersistentGrid shadow;
+    // Moves made since startRecording, packed as in Replay; null when not recording
+    private transient byte[] recordedMoves;
+    private transient int recordedCount;
+    private transient int recordedDifficulty;
+    // Set while applyMoves runs: events are not logged at all
+    private transient boolean quiet;
+    // Filled in again by every move; see move(Direction)
+    private transient MoveResult result = new MoveResult();
+    // Ranged mutant positions and the squares they threaten; rebuilt after generation and loading,
+    // kept up to date by setCell
+    private transient PositionIndex rangedMutants;
+    private transient ThreatMap threats;
+    private transient PositionIndex.Visitor rangedAttack;
 
     public GameEngine(int difficulty) {
         this(difficulty, false);
     }
 
     public GameEngine(int difficulty, boolean textMode) {
-        this.textMode = textMode;
+        this(difficulty, textMode, Grid.Backend.OBJECT);
+    }
+
+    public GameEngine(int difficulty, boolean textMode, Grid.Backend backend) {
+        this(DungeonConfig.CLASSIC, difficulty, textMode, backend, true, randomSeed());
+    }
+
+    // Same seed and same moves give the same levels, rolls and log
+    public GameEngine(int difficulty, long seed) {
+        this(DungeonConfig.CLASSIC, difficulty, seed);
+    }
+
+    public GameEngine(DungeonConfig config, int difficulty, long seed) {
+        this(config, difficulty, false, Grid.Backend.OBJECT, true, seed);
+    }
+
+    /**
+     * Starts a game on a random seed whose first level the pool has already
+     * built; later levels are built in the background while the current one is
+     * played. The pool's settings and backend are used.
+     */
+    public GameEngine(int difficulty, LevelPool pool) {
+        this.config = pool.getConfig();
+        this.backend = pool.getBackend();
+        this.levelPool = pool;
+        leaderboard = Leaderboard.shared();
         setDifficulty(difficulty);
+        LevelPool.Level first = pool.take(this.difficulty);
+        this.seed = first.seed();
+        this.pooledLevel = first;
         initializeGame();
-        loadTopScores();
+    }
+
+    private GameEngine(DungeonConfig config, int difficulty, boolean textMode, Grid.Backend backend,
+                       boolean persistScores, long seed) {
+        this.config = config;
+        if (textMode) renderer = new TextRenderer(System.out, false);
+        this.backend = backend;
+        this.seed = seed;
+        if (persistScores) leaderboard = Leaderboard.shared();
+        setDifficulty(difficulty);
+        initializeGame();
+    }
+
+    // Rebuilds a saved game; see SaveCodec
+    GameEngine(DungeonConfig config, Grid map, Player player, int difficulty, int currentLevel, int stepsRemaining,
+               boolean gameWon, Cell.Type lastDamageSource, long seed, long combatDraws, List<String> eventLog) {
+        this.config = config;
+        this.map = map;
+        this.backend = map instanceof PackedGrid ? Grid.Backend.PACKED : Grid.Backend.OBJECT;
+        this.player = player;
+        this.difficulty = difficulty;
+        this.currentLevel = currentLevel;
+        this.stepsRemaining = stepsRemaining;
+        this.gameWon = gameWon;
+        this.lastDamageSource = lastDamageSource;
+        this.seed = seed;
+        this.combatDraws = combatDraws;
+        eventLog.forEach(this.eventLog::add);
+        restoreCombatRandom();
+        indexMap();
+        clearPlayerCell(); // Ensure player's position is safe after loading
+        leaderboard = Leaderboard.shared();
+    }
+
+    /**
+     * Creates an engine for simulations: packed map, no console output and no
+     * shared leaderboard, so any number of them can run side by side.
+     */
+    public static GameEngine headless(int difficulty) {
+        return headless(difficulty, randomSeed());
+    }
+
+    public static GameEngine headless(int difficulty, long seed) {
+        return headless(DungeonConfig.CLASSIC, difficulty, seed);
+    }
+
+    public static GameEngine headless(DungeonConfig config, int difficulty, long seed) {
+        return new GameEngine(config, difficulty, false, Grid.Backend.PACKED, false, seed);
+    }
+
+    private static long randomSeed() {
+        return ThreadLocalRandom.current().nextLong();
     }
 
     private void setDifficulty(int d) {
@@ -35,95 +153,149 @@ public class GameEngine implements  Serializable {
 
     private void initializeGame() {
         this.player = new Player();
-        this.stepsRemaining = 100;
+        this.stepsRemaining = config.stepBudget();
         this.currentLevel = 1;
         this.eventLog.clear();
         this.gameWon = false;
+        this.lastDamageSource = null;
+        this.combatRandom = new SplittableRandom(seed);
+        this.combatDraws = 0;
         generateLevel();
-        logEvent("Game started! Difficulty: " + difficulty);
-        if (textMode) printMap();
+        logEvent(EventType.GAME_STARTED, difficulty);
+        if (renderer != null) printMap();
     }
 
-    public int getSize() { return 12; }
+    // Width of the map; the classic map is square. See getWidth and getHeight for other shapes
+    public int getSize() { return config.width(); }
+    public int getWidth() { return config.width(); }
+    public int getHeight() { return config.height(); }
+    public DungeonConfig getConfig() { return config; }
 
     private void generateLevel() {
-        map = new Cell[12][12];
-        List<int[]> availablePositions = new ArrayList<>();
-
-        // Initialize grid with walls
-        for (int y = 0; y < 12; y++) {
-            for (int x = 0; x < 12; x++) {
-                if (x == 0 || x == 11 || y == 0 || y == 11) {
-                    map[y][x] = new WallCell(x, y);
-                } else {
-                    map[y][x] = new EmptyCell(x, y);
-                    availablePositions.add(new int[]{x, y});
-                }
+        long start = EngineMetrics.enabled ? System.nanoTime() : 0;
+        FlightEvents.LevelGenerated event = new FlightEvents.LevelGenerated();
+        event.begin();
+        String source = "generated";
+        if (pooledLevel != null) {
+            map = pooledLevel.grid();
+            levelUnsolvable = pooledLevel.unsolvable();
+            pooledLevel = null;
+            source = "pooled";
+        } else {
+            LevelGenerator.Generated level;
+            if (nextLevel != null) {
+                level = levelPool.collect(nextLevel, player.getHp(), stepsRemaining);
+                nextLevel = null;
+                source = "prefetched";
+            } else {
+                level = LevelGenerator.forGame(config, backend, seed, currentLevel, difficulty,
+                        player.getHp(), stepsRemaining);
             }
+            map = level.grid();
+            levelUnsolvable = level.unsolvable();
         }
-        // Set player's starting position and reserve it
-        player.setPosition(1, 10);
-        availablePositions.removeIf(pos -> pos[0] == 1 && pos[1] == 10); // Always reserve (1,1
-
-        if (currentLevel == 1) {
-            // Create starting area
-            map[11][1] = new EntryCell(1, 11);
-            // Place ladder in Level 1
-            int[] ladderPos = getRandomPosition(availablePositions);
-            map[ladderPos[1]][ladderPos[0]] = new LadderCell(ladderPos[0], ladderPos[1]);
-        } else {
-            // Place ladder in Level 2
-            int[] ladderPos = getRandomPosition(availablePositions);
-            map[ladderPos[1]][ladderPos[0]] = new LadderCell(ladderPos[0], ladderPos[1]);
+        if (EngineMetrics.enabled) EngineMetrics.levelGenerated(System.nanoTime() - start, levelUnsolvable);
+        if (event.shouldCommit()) {
+            event.level = currentLevel;
+            event.difficulty = difficulty;
+            event.seed = seed;
+            event.source = source;
+            event.commit();
+        }
+        // Have the next level built in the background while this one is played
+        if (levelPool != null && currentLevel < config.levels()) {
+            nextLevel = levelPool.prefetch(seed, currentLevel + 1, difficulty + 2);
         }
+        player.setPosition(config.startX(), config.startY());
 
-        // Place items according to specs
-        placeItems(availablePositions, 5, Cell.Type.GOLD);
-        placeItems(availablePositions, 5, Cell.Type.TRAP);
-        placeItems(availablePositions, 3, Cell.Type.MELEE_MUTANT);
-        placeItems(availablePositions, difficulty, Cell.Type.RANGED_MUTANT);
-        placeItems(availablePositions, 2, Cell.Type.HEALTH_POTION);
+        indexMap();
+        if (shadow != null) shadow = PersistentGrid.of(map);
+        logEvent(EventType.LEVEL_GENERATED, currentLevel);
+        if (levelUnsolvable) logEvent(EventType.LEVEL_UNSOLVABLE, currentLevel);
+        if (changeListener != null) changeListener.levelChanged();
+        if (renderer != null && !quiet) printMap();
+    }
 
-        logEvent("Generated Level " + currentLevel);
-        if (textMode) printMap();
+    public boolean movePlayer(Direction direction) {
+        return movePlayer(direction.getDx(), direction.getDy());
     }
 
-    private int[] getRandomPosition(List<int[]> positions) {
-        return positions.remove(random.nextInt(positions.size()));
+    public boolean movePlayer(int dx, int dy) {
+        return step(dx, dy).moved();
+    }
+
+    /**
+     * The fast path for bots and simulations: makes the same move as
+     * {@link #movePlayer(Direction)} but logs no events and prints nothing,
+     * and reports what happened in this engine's {@link MoveResult}, which the
+     * next move overwrites. Allocates nothing unless undo history is on.
+     */
+    public MoveResult move(Direction direction) {
+        boolean wasQuiet = quiet;
+        quiet = true;
+        try {
+            return step(direction.getDx(), direction.getDy());
+        } finally {
+            quiet = wasQuiet;
+        }
     }
 
-    private void placeItems(List<int[]> positions, int count, Cell.Type type) {
-        for(int i = 0; i < count && !positions.isEmpty(); i++) {
-            int[] pos = getRandomPosition(positions);
-            switch(type) {
-                case GOLD -> map[pos[1]][pos[0]] = new GoldCell(pos[0], pos[1]);
-                case TRAP -> map[pos[1]][pos[0]] = new TrapCell(pos[0], pos[1]);
-                case MELEE_MUTANT -> map[pos[1]][pos[0]] = new MeleeMutantCell(pos[0], pos[1]);
-                case RANGED_MUTANT -> map[pos[1]][pos[0]] = new RangedMutantCell(pos[0], pos[1]);
-                case HEALTH_POTION -> map[pos[1]][pos[0]] = new HealthPotionCell(pos[0], pos[1]);
-            }
+    private MoveResult step(int dx, int dy) {
+        FlightEvents.PlayerMoved event = new FlightEvents.PlayerMoved();
+        event.begin();
+        if (EngineMetrics.enabled) {
+            long events = eventLog.getSequence();
+            long start = System.nanoTime();
+            applyStep(dx, dy);
+            EngineMetrics.moveMade(System.nanoTime() - start, result, quiet ? -1 : eventLog.getSequence() - events);
+        } else {
+            applyStep(dx, dy);
+        }
+        if (event.shouldCommit()) {
+            int d = directionOrdinal(dx, dy);
+            event.level = currentLevel;
+            event.direction = d >= 0 ? DIRECTIONS[d].name() : dx + "," + dy;
+            event.outcome = result.describe();
+            event.cell = result.getEntered() != null ? result.getEntered().name() : null;
+            event.damage = result.getDamage();
+            event.hp = player.getHp();
+            event.stepsRemaining = stepsRemaining;
+            event.commit();
         }
+        return result;
     }
 
-    public boolean movePlayer(int dx, int dy) {
+    private MoveResult applyStep(int dx, int dy) {
+        result.reset();
         int newX = player.getX() + dx;
         int newY = player.getY() + dy;
 
         if(!isValidMove(newX, newY)) {
-            logEvent("You tried to move but hit a wall");
-            return false;
+            result.set(MoveResult.BLOCKED);
+            logEvent(EventType.HIT_WALL, 0);
+            return result;
+        }
+        result.set(MoveResult.MOVED);
+        if (history != null) {
+            history.addLast(snapshot());
+            if (history.size() > historyLimit) history.removeFirst();
         }
 
+        if (recordedMoves != null) record(dx, dy);
+
         stepsRemaining--;
+        int oldX = player.getX();
+        int oldY = player.getY();
         player.setPosition(newX, newY);
-        Cell currentCell = map[newY][newX];
+        cellChanged(oldX, oldY);
+        cellChanged(newX, newY);
+        Cell currentCell = map.getCell(newX, newY);
 
         // Log movement
-        String direction = getDirection(dx, dy);
-        logEvent("You moved " + direction);
+        logEvent(EventType.MOVED, directionOrdinal(dx, dy));
 
         // Handle cell interaction
-        handleCellInteraction(currentCell);
+        handleCellInteraction(currentCell, newX, newY);
 
         // Handle ranged attacks
         handleRangedAttacks();
@@ -131,109 +303,211 @@ public class GameEngine implements  Serializable {
         // Check game state
         checkGameState();
 
-        if (textMode) printMap();
-        return true;
+        if (renderer != null && !quiet) printMap();
+        return result;
+    }
+
+    /**
+     * Makes up to {@code count} moves from a packed stream (see {@link Replay})
+     * and stops early once the game is over. No events are logged while they
+     * run, so this is the fast path for replaying and verifying games. The
+     * state reached is exactly what the same moves through
+     * {@link #movePlayer(Direction)} would reach. Returns the number of moves
+     * read, counting any that hit a wall.
+     */
+    public int applyMoves(byte[] moves, int count) {
+        boolean wasQuiet = quiet;
+        quiet = true;
+        try {
+            int i = 0;
+            for (; i < count && !isGameOver() && !gameWon; i++) {
+                Direction d = DIRECTIONS[(moves[i >>> 2] >>> ((i & 3) << 1)) & 3];
+                step(d.getDx(), d.getDy());
+            }
+            return i;
+        } finally {
+            quiet = wasQuiet;
+        }
+    }
+
+    /**
+     * Starts recording moves for {@link #getReplay}. Only a game that has not
+     * moved yet can be recorded, since a replay starts from the seed.
+     */
+    public void startRecording() {
+        if (currentLevel != 1 || stepsRemaining != config.stepBudget()) {
+            throw new IllegalStateException("Recording must start before the first move");
+        }
+        if (difficulty > Replay.MAX_DIFFICULTY) {
+            throw new IllegalStateException("Difficulty " + difficulty + " is too high to record");
+        }
+        recordedMoves = new byte[Replay.packedLength(config.stepBudget())];
+        recordedCount = 0;
+        recordedDifficulty = difficulty;
+    }
+
+    /** The game so far, with the current score and result as its claim. */
+    public Replay getReplay() {
+        if (recordedMoves == null) throw new IllegalStateException("Not recording");
+        return new Replay(config, recordedDifficulty, seed, recordedCount,
+                Arrays.copyOf(recordedMoves, Replay.packedLength(recordedCount)), player.getScore(), gameWon);
     }
 
-    private String getDirection(int dx, int dy) {
-        if (dx == -1) return "left";
-        if (dx == 1) return "right";
-        if (dy == -1) return "up";
-        if (dy == 1) return "down";
-        return "unknown";
+    private void record(int dx, int dy) {
+        int d = directionOrdinal(dx, dy);
+        if (d < 0 || dx != 0 && dy != 0) {
+            recordedMoves = null; // not a single step, so the stream cannot hold it
+            return;
+        }
+        int i = recordedCount++;
+        if (i >>> 2 == recordedMoves.length) recordedMoves = Arrays.copyOf(recordedMoves, recordedMoves.length * 2 + 1);
+        recordedMoves[i >>> 2] |= (byte) (d << ((i & 3) << 1));
+    }
+
+    // Clears the last recorded move so the next one can be ORed into its place
+    private void unrecord() {
+        int i = --recordedCount;
+        recordedMoves[i >>> 2] &= (byte) ~(3 << ((i & 3) << 1));
     }
 
-    private void handleCellInteraction(Cell cell) {
+    private static int directionOrdinal(int dx, int dy) {
+        if (dx == -1) return Direction.LEFT.ordinal();
+        if (dx == 1) return Direction.RIGHT.ordinal();
+        if (dy == -1) return Direction.UP.ordinal();
+        if (dy == 1) return Direction.DOWN.ordinal();
+        return -1;
+    }
+
+    private void handleCellInteraction(Cell cell, int x, int y) {
         int prevHp = player.getHp();
         int prevScore = player.getScore();
+        Cell.Type type = cell.getType();
 
         cell.interact(player);
+        int hpLost = prevHp - player.getHp();
+        int scoreGained = player.getScore() - prevScore;
+        result.enter(type);
+        result.score(scoreGained);
+        if (hpLost > 0) {
+            lastDamageSource = type;
+            result.damage(hpLost);
+        } else if (hpLost < 0) {
+            result.heal(-hpLost);
+        }
 
         // Log interactions
-        switch(cell.getType()) {
-            case GOLD:
-                int goldGained = player.getScore() - prevScore;
-                if (goldGained > 0) {
-                    logEvent("You picked up " + goldGained + " gold!");
-                }
-                break;
-
-            case TRAP:
-                int damage = prevHp - player.getHp();
-                if (damage > 0) {
-                    logEvent("You fell into a trap! Lost " + damage + " HP");
-                }
-                break;
-
-            case HEALTH_POTION:
-                int healAmount = player.getHp() - prevHp;
-                if (healAmount > 0) {
-                    logEvent("You drank a health potion! Restored " + healAmount + " HP");
+        switch(type) {
+            case GOLD -> {
+                if (scoreGained > 0) {
+                    result.set(MoveResult.GOLD);
+                    logEvent(EventType.GOLD_PICKED_UP, scoreGained);
                 }
-                break;
-
-            case MELEE_MUTANT:
-                if (player.getHp() < prevHp) {
-                    logEvent("You were defeated by a melee mutant!");
+            }
+            case TRAP -> {
+                if (hpLost > 0) logEvent(EventType.TRAP_TRIGGERED, hpLost);
+            }
+            case HEALTH_POTION -> {
+                if (hpLost < 0) logEvent(EventType.POTION_DRUNK, -hpLost);
+            }
+            case MELEE_MUTANT -> {
+                result.set(MoveResult.KILLED);
+                if (hpLost > 0) {
+                    logEvent(EventType.MELEE_HIT_PLAYER, hpLost);
                 } else {
-                    logEvent("You defeated a melee mutant!");
+                    logEvent(EventType.MELEE_DEFEATED, 0);
                 }
-                break;
-
-            case RANGED_MUTANT:
-                if (player.getHp() < prevHp) {
-                    logEvent("You were defeated by a ranged mutant!");
+            }
+            case RANGED_MUTANT -> {
+                result.set(MoveResult.KILLED);
+                if (hpLost > 0) {
+                    logEvent(EventType.RANGED_HIT_PLAYER, hpLost);
                 } else {
-                    logEvent("You defeated a ranged mutant!");
+                    logEvent(EventType.RANGED_DEFEATED, 0);
                 }
-                break;
+            }
+            default -> { }
         }
 
-        // Replace consumed cells
+        // Replace consumed cells (packed maps hand out flyweights, so use the square's position)
         switch(cell.getType()) {
             case GOLD, HEALTH_POTION, MELEE_MUTANT, RANGED_MUTANT ->
-                    map[cell.getY()][cell.getX()] = new EmptyCell(cell.getX(), cell.getY());
+                    setCell(x, y, Cell.Type.EMPTY);
         }
     }
 
-    private void handleRangedAttacks() {
-        for(int y = 0; y < 12; y++) {
-            for(int x = 0; x < 12; x++) {
-                Cell cell = map[y][x];
-                if(cell.getType() == Cell.Type.RANGED_MUTANT) {
-                    RangedMutantCell mutant = (RangedMutantCell) cell;
-                    if(isInRange(x, y)) {
-                        if(mutant.attemptAttack()) {
-                            player.takeDamage(2);
-                            logEvent("A ranged mutant attacked! You lost 2 HP");
-                        } else {
-                            logEvent("A ranged mutant attacked, but missed!");
-                        }
-                    }
+    private void setCell(int x, int y, Cell.Type type) {
+        // Go by the index, not the map: a mutant written straight into the grid was never counted
+        if (rangedMutants.contains(x, y)) {
+            rangedMutants.remove(x, y);
+            threats.remove(x, y);
+        }
+        if (type == Cell.Type.RANGED_MUTANT) {
+            rangedMutants.add(x, y);
+            threats.add(x, y);
+        }
+        map.setType(x, y, type);
+        if (shadow != null) shadow = shadow.with(x, y, type);
+        cellChanged(x, y);
+    }
+
+    // One pass over a freshly generated or loaded map to build the position index and threat map
+    private void indexMap() {
+        rangedMutants = new PositionIndex(map.getWidth(), map.getHeight());
+        threats = new ThreatMap(map.getWidth(), map.getHeight());
+        for (int y = 0; y < map.getHeight(); y++) {
+            for (int x = 0; x < map.getWidth(); x++) {
+                if (map.getType(x, y) == Cell.Type.RANGED_MUTANT) {
+                    rangedMutants.add(x, y);
+                    threats.add(x, y);
                 }
             }
         }
+        if (rangedAttack == null) rangedAttack = this::rangedAttack;
     }
 
-    private boolean isValidMove(int x, int y) {
-        return x >= 1 && x <= 10 && y >= 1 && y <= 10 &&
-                map[y][x].getType() != Cell.Type.WALL;
+    private void cellChanged(int x, int y) {
+        if (changeListener != null) changeListener.cellChanged(x, y);
+    }
+
+    // Most squares are out of every mutant's reach, which the threat map tells in one read.
+    // Otherwise the mutants in reach roll in the same row-major order the old full-map scan used
+    private void handleRangedAttacks() {
+        if (!threats.isThreatened(player.getX(), player.getY())) return;
+        rangedMutants.forEachInCross(player.getX(), player.getY(), RANGED_REACH, RANGED_REACH, rangedAttack);
+    }
+
+    private void rangedAttack(int x, int y) {
+        // The index can be stale if a test wrote straight into getMap()
+        if (map.getType(x, y) != Cell.Type.RANGED_MUTANT) return;
+        RangedMutantCell mutant = (RangedMutantCell) map.getCell(x, y);
+        combatDraws++;
+        boolean hit = mutant.attemptAttack(combatRandom);
+        if (EngineMetrics.enabled) EngineMetrics.rangedAttackChecked(hit);
+        if(hit) {
+            player.takeDamage(2);
+            lastDamageSource = Cell.Type.RANGED_MUTANT;
+            result.damage(2);
+            logEvent(EventType.RANGED_ATTACK_HIT, 2);
+        } else {
+            logEvent(EventType.RANGED_ATTACK_MISSED, 0);
+        }
     }
 
-    private boolean isInRange(int mutantX, int mutantY) {
-        int px = player.getX();
-        int py = player.getY();
-        return (Math.abs(mutantX - px) == 2 && mutantY == py) ||
-                (Math.abs(mutantY - py) == 2 && mutantX == px);
+    private boolean isValidMove(int x, int y) {
+        return x >= 1 && x <= config.width() - 2 && y >= 1 && y <= config.height() - 2 &&
+                map.getType(x, y) != Cell.Type.WALL;
     }
 
     private void checkGameState() {
         if(player.getHp() <= 0 || stepsRemaining <= 0) {
+            result.set(player.getHp() <= 0 ? MoveResult.DIED : MoveResult.OUT_OF_STEPS);
             endGame(false);
-        } else if(map[player.getY()][player.getX()].getType() == Cell.Type.LADDER) {
-            if(currentLevel == 2) {
+        } else if(map.getType(player.getX(), player.getY()) == Cell.Type.LADDER) {
+            if(currentLevel >= config.levels()) {
+                result.set(MoveResult.WON);
                 endGame(true);
             } else {
+                result.set(MoveResult.LEVEL_UP);
                 advanceLevel();
             }
         }
@@ -242,37 +516,57 @@ public class GameEngine implements  Serializable {
     private void advanceLevel() {
         currentLevel++;
         difficulty += 2;
-        logEvent("Advanced to Level " + currentLevel + "! Difficulty increased");
+        logEvent(EventType.LEVEL_ADVANCED, currentLevel);
         generateLevel();
     }
 
     private void endGame(boolean won) {
         this.gameWon = won;
+        FlightEvents.GameEnded event = new FlightEvents.GameEnded();
+        if (event.shouldCommit()) {
+            event.won = won;
+            event.score = player.getScore();
+            event.level = currentLevel;
+            event.stepsRemaining = stepsRemaining;
+            event.seed = seed;
+            event.commit();
+        }
         if(won) {
-            checkTopScores(player.getScore());
-            logEvent("CONGRATULATIONS! You escaped the dungeon!");
-            logEvent("Final score: " + player.getScore());
+            if (player.getScore() > 0) getLeaderboard().submit(player.getScore());
+            logEvent(EventType.GAME_WON, 0);
+            logEvent(EventType.FINAL_SCORE, player.getScore());
         } else {
-            logEvent("GAME OVER! Score: -1");
+            logEvent(EventType.GAME_LOST, 0);
         }
-        saveTopScores();
         showTopScores();
     }
 
     public void logEvent(String message) {
         eventLog.add(message);
-        if (textMode) System.out.println("> " + message);
+        if (renderer != null) renderer.line("> " + message);
+    }
+
+    // Structured events are only formatted when someone reads them
+    private void logEvent(EventType type, int amount) {
+        if (quiet) return;
+        eventLog.add(type, amount, player.getX(), player.getY());
+        if (renderer != null) renderer.line("> " + type.format(amount, null));
     }
 
+    // Formatted text of the events still held in the log, oldest first
     public List<String> getEventLog() {
-        return new ArrayList<>(eventLog);
+        return eventLog.formatSince(0);
+    }
+
+    public EventLog getEvents() {
+        return eventLog;
     }
 
     public void clearEventLog() {
         eventLog.clear();
     }
 
-    // Top Scores System
+    // Entry type of the old scores.dat; kept so those files (and old saves holding them) still read
     private static class ScoreEntry implements Comparable<ScoreEntry>, Serializable {
         final int score;
         final LocalDate date;
@@ -293,79 +587,199 @@ public class GameEngine implements  Serializable {
         }
     }
 
-    private void checkTopScores(int score) {
-        if(score <= 0) return;
-        topScores.add(new ScoreEntry(score));
-        Collections.sort(topScores);
-        if(topScores.size() > 5) {
-            topScores = topScores.subList(0, 5);
+    // Reads the top scores from the scores.dat the game wrote before the leaderboard existed,
+    // through the same filter as legacy saves
+    @SuppressWarnings("unchecked")
+    static List<Leaderboard.Entry> readLegacyScores(Path file) {
+        List<Leaderboard.Entry> entries = new ArrayList<>();
+        try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(file))) {
+            ois.setObjectInputFilter(SaveCodec.legacyFilter(Files.size(file)));
+            for (ScoreEntry e : (List<ScoreEntry>) ois.readObject()) {
+                entries.add(new Leaderboard.Entry(e.score, e.date));
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            System.out.println("Error loading scores: " + e.getMessage());
         }
+        return entries;
     }
 
-    private void saveTopScores() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream("scores.dat"))) {
-            oos.writeObject(topScores);
-        } catch (IOException e) {
-            System.out.println("Error saving scores: " + e.getMessage());
-        }
+    public Leaderboard getLeaderboard() {
+        if (leaderboard == null) leaderboard = new Leaderboard(Leaderboard.DEFAULT_SIZE);
+        return leaderboard;
     }
 
-    @SuppressWarnings("unchecked")
-    private void loadTopScores() {
-        File file = new File("scores.dat");
-        if(file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                topScores = (ArrayList<ScoreEntry>) ois.readObject();
-            } catch (IOException | ClassNotFoundException e) {
-                topScores = new ArrayList<>();
-            }
-        }
+    // Lets simulations and tests pool scores without touching the shared board
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
     }
 
     public List<String> getTopScores() {
         List<String> formatted = new ArrayList<>();
         int rank = 1;
-        for(ScoreEntry entry : topScores) {
-            formatted.add(String.format("#%d: %d points (%s)", rank++, entry.score, entry.date));
+        for(Leaderboard.Entry entry : getLeaderboard().top()) {
+            formatted.add(String.format("#%d: %d points (%s)", rank++, entry.score(), entry.date()));
         }
         return formatted;
     }
 
     private void showTopScores() {
-        if (textMode) {
-            System.out.println("\n=== TOP 5 SCORES ===");
-            getTopScores().forEach(System.out::println);
-            System.out.println("=====================");
+        if (renderer != null && !quiet) {
+            renderer.line("\n=== TOP 5 SCORES ===");
+            getTopScores().forEach(renderer::line);
+            renderer.line("=====================");
         }
     }
 
     public void saveGame(String filename) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(this);
+        try {
+            SaveCodec.write(this, java.nio.file.Path.of(filename));
         } catch (IOException e) {
             logEvent("Save failed: " + e.getMessage());
         }
     }
 
+    // Reads both the current format and older Java-serialized saves
     public static GameEngine loadGame(String filename) {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-            return (GameEngine) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
+        try {
+            return SaveCodec.read(java.nio.file.Path.of(filename));
+        } catch (IOException e) {
             return null;
         }
     }
 
+    /**
+     * Keeps a snapshot from before each of the last {@code limit} moves for
+     * {@link #undo}; 0 turns history off and drops it. Snapshots share
+     * unchanged parts of the map, so a move that changes no square costs one
+     * small record and one that does costs about a hundred bytes more.
+     */
+    public void setHistoryLimit(int limit) {
+        if (limit <= 0) {
+            history = null;
+            shadow = null;
+            historyLimit = 0;
+            return;
+        }
+        if (history == null) {
+            history = new ArrayDeque<>();
+            shadow = PersistentGrid.of(map);
+        }
+        historyLimit = limit;
+        while (history.size() > limit) history.removeFirst();
+    }
+
+    public int getHistorySize() {
+        return history == null ? 0 : history.size();
+    }
+
+    /**
+     * Takes back the last move, and drops it from the recording if one is
+     * being made. Returns false when there is nothing to undo or the game has
+     * ended: the score has been submitted by then, so the result stands.
+     */
+    public boolean undo() {
+        if (history == null || history.isEmpty() || hasEnded()) return false;
+        restoreState(history.removeLast());
+        if (recordedMoves != null) unrecord();
+        return true;
+    }
+
+    /**
+     * The current state. O(1) while history is on; otherwise the map is
+     * copied once.
+     */
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(shadow != null ? shadow : PersistentGrid.of(map),
+                player.getX(), player.getY(), player.getHp(), player.getScore(), stepsRemaining,
+                currentLevel, difficulty, gameWon, lastDamageSource, combatDraws, eventLog.getSequence());
+    }
+
+    /**
+     * Puts the game back to a snapshot of this engine. Only the squares that
+     * differ are written, and each is reported to the change listener.
+     * The event log is kept as it is. Any recording stops, since the moves
+     * that led to the snapshot are not known, and a game that has ended
+     * cannot be restored.
+     */
+    public void restore(GameSnapshot snapshot) {
+        if (hasEnded()) throw new IllegalStateException("The game has ended");
+        restoreState(snapshot);
+        recordedMoves = null;
+    }
+
+    private boolean hasEnded() {
+        return gameWon || isGameOver();
+    }
+
+    private void restoreState(GameSnapshot snapshot) {
+        PersistentGrid target = snapshot.grid();
+        PersistentGrid current = shadow != null ? shadow : PersistentGrid.of(map);
+        shadow = null; // setCell must not fork the shadow while it is being replaced
+        current.forEachDifference(target, (x, y) -> setCell(x, y, target.getType(x, y)));
+        if (history != null) shadow = target;
+
+        cellChanged(player.getX(), player.getY());
+        player = new Player(snapshot.playerX(), snapshot.playerY(), snapshot.hp(), snapshot.score());
+        cellChanged(player.getX(), player.getY());
+        boolean levelChanged = snapshot.level() != currentLevel;
+        stepsRemaining = snapshot.stepsRemaining();
+        currentLevel = snapshot.level();
+        difficulty = snapshot.difficulty();
+        gameWon = snapshot.gameWon();
+        lastDamageSource = snapshot.lastDamageSource();
+        combatDraws = snapshot.combatDraws();
+        restoreCombatRandom();
+        if (levelChanged) {
+            nextLevel = null; // built for the level being left; the seed rebuilds it if needed
+            if (changeListener != null) changeListener.levelChanged();
+        }
+    }
+
     // Getters
-    public Cell[][] getMap() { return map; }
+    // Writes made straight into this array are not reported to the change listener
+    public Cell[][] getMap() { return map.asArray(); }
+    public Grid getGrid() { return map; }
+    // Live: kept up to date as the level changes, and replaced when a new one is generated or loaded
+    public ThreatMap getThreatMap() { return threats; }
+    public void setChangeListener(CellChangeListener listener) { this.changeListener = listener; }
     public Player getPlayer() { return player; }
     public int getStepsRemaining() { return stepsRemaining; }
     public boolean isGameOver() {
         return player.getHp() <= 0 || stepsRemaining <= 0;
     }
     public boolean isGameWon() { return gameWon; }
-
-    // Text UI
+    public int getCurrentLevel() { return currentLevel; }
+    // True when the config wants solvable levels and the generator gave up on this one, so it may not be clearable
+    public boolean isLevelUnsolvable() { return levelUnsolvable; }
+    public int getDifficulty() { return difficulty; }
+    public long getSeed() { return seed; }
+    long getCombatDraws() { return combatDraws; }
+    // Type of the cell that last hurt the player, or null if nothing has yet
+    public Cell.Type getLastDamageSource() { return lastDamageSource; }
+
+    /**
+     * Sends console output through {@code renderer} and draws the current map
+     * with it; null turns console output off.
+     */
+    public void setRenderer(TextRenderer renderer) {
+        this.renderer = renderer;
+        if (renderer != null) printMap();
+    }
+
+    // Text UI; usage: GameEngine [--ansi] [--size N]
     public static void main(String[] args) {
+        boolean ansi = false;
+        DungeonConfig config = DungeonConfig.CLASSIC;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--ansi" -> ansi = true;
+                case "--size" -> {
+                    int size = Integer.parseInt(args[++i]);
+                    config = DungeonConfig.ofSize(size, size);
+                }
+                default -> System.out.println("Ignoring unknown option " + args[i]);
+            }
+        }
         Scanner scanner = new Scanner(System.in);
         int difficulty = 3;
 
@@ -377,16 +791,22 @@ public class GameEngine implements  Serializable {
             System.out.println("Invalid input. Using default difficulty 3.");
         }
 
-        new GameEngine(difficulty, true).startTextGame();
+        // Packed maps keep large dungeons small in memory
+        Grid.Backend backend = config == DungeonConfig.CLASSIC ? Grid.Backend.OBJECT : Grid.Backend.PACKED;
+        GameEngine game = new GameEngine(config, difficulty, false, backend, true, randomSeed());
+        game.setRenderer(new TextRenderer(System.out, ansi));
+        game.startTextGame(scanner);
     }
 
-    private void startTextGame() {
-        Scanner scanner = new Scanner(System.in);
+    // Reads moves from the same scanner as the difficulty, which may already have buffered them
+    private void startTextGame(Scanner scanner) {
         while(!isGameOver() && !isGameWon()) {
-            System.out.println("\nHP: " + player.getHp() +
+            renderer.line("\nHP: " + player.getHp() +
                     " | Steps: " + stepsRemaining +
                     " | Score: " + player.getScore());
-            System.out.print("Move [U/D/L/R]: ");
+            renderer.print("Move [U/D/L/R]: ");
+            renderer.flush();
+            if (!scanner.hasNext()) return; // input closed
             String input = scanner.next().toUpperCase();
             boolean moved = switch(input) {
                 case "U" -> movePlayer(0, -1);
@@ -395,56 +815,73 @@ public class GameEngine implements  Serializable {
                 case "R" -> movePlayer(1, 0);
                 default -> false;
             };
-            if(!moved) System.out.println("Invalid move!");
+            if(!moved) renderer.line("Invalid move!");
         }
 
         if (isGameWon()) {
-            System.out.println("\nCONGRATULATIONS! You escaped the dungeon!");
-            System.out.println("Final score: " + player.getScore());
+            renderer.line("\nCONGRATULATIONS! You escaped the dungeon!");
+            renderer.line("Final score: " + player.getScore());
         } else {
-            System.out.println("\nGAME OVER! Score: -1");
+            renderer.line("\nGAME OVER! Score: -1");
         }
 
         showTopScores();
+        renderer.flush();
     }
 
     private void printMap() {
-        for(int y = 0; y < 12; y++) {
-            for(int x = 0; x < 12; x++) {
-                char symbol;
-                if(player.getX() == x && player.getY() == y) {
-                    symbol = 'P';
-                } else {
-                    symbol = switch(map[y][x].getType()) {
-                        case WALL -> '#';
-                        case ENTRY -> 'E';
-                        case LADDER -> 'L';
-                        case TRAP -> 'T';
-                        case GOLD -> 'G';
-                        case MELEE_MUTANT -> 'M';
-                        case RANGED_MUTANT -> 'R';
-                        case HEALTH_POTION -> 'H';
-                        default -> '.';
-                    };
-                }
-                System.out.print(symbol + " ");
-            }
-            System.out.println();
-        }
+        renderer.render(map, player.getX(), player.getY());
     }
+
     private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
-        ois.defaultReadObject();
-        random = new Random();
-        textMode = false;
+        ObjectInputStream.GetField fields = ois.readFields();
+        // Saves made before the Grid backends stored the raw Cell[][] under "map"
+        Object storedMap = fields.get("map", null);
+        map = storedMap instanceof Cell[][] legacy ? new ObjectGrid(legacy) : (Grid) storedMap;
+        config = (DungeonConfig) fields.get("config", null);
+        if (config == null) config = DungeonConfig.CLASSIC;
+        backend = (Grid.Backend) fields.get("backend", Grid.Backend.OBJECT);
+        if (backend == null) backend = Grid.Backend.OBJECT;
+        player = (Player) fields.get("player", null);
+        stepsRemaining = fields.get("stepsRemaining", 0);
+        difficulty = fields.get("difficulty", 0);
+        currentLevel = fields.get("currentLevel", 1);
+        Object storedLog = fields.get("eventLog", null);
+        if (storedLog instanceof EventLog log) {
+            eventLog = log;
+        } else {
+            // Older saves kept the log as a list of strings
+            eventLog = new EventLog();
+            if (storedLog instanceof List<?> lines) lines.forEach(line -> eventLog.add(String.valueOf(line)));
+        }
+        gameWon = fields.get("gameWon", false);
+        lastDamageSource = (Cell.Type) fields.get("lastDamageSource", null);
+        leaderboard = Leaderboard.shared();
+        if (fields.defaulted("seed")) {
+            // Older saves carry no seed; carry on with a fresh one
+            seed = randomSeed();
+        } else {
+            seed = fields.get("seed", 0L);
+        }
+        combatDraws = fields.get("combatDraws", 0L);
+        restoreCombatRandom();
+        renderer = null;
+        result = new MoveResult();
+        indexMap();
         clearPlayerCell(); // Ensure player's position is safe after loading
     }
+    // Replays the combat stream up to where the saved game left it
+    private void restoreCombatRandom() {
+        combatRandom = new SplittableRandom(seed);
+        for (long i = 0; i < combatDraws; i++) combatRandom.nextDouble();
+    }
+
     // Clears any interactive cell at player's position (except ladder)
     private void clearPlayerCell() {
         int x = player.getX();
         int y = player.getY();
-        Cell current = map[y][x];
-        if (current.getType() != Cell.Type.LADDER) {
-            map[y][x] = new EmptyCell(x, y);
+        if (map.getType(x, y) != Cell.Type.LADDER) {
+            setCell(x, y, Cell.Type.EMPTY);
         }
     }
 
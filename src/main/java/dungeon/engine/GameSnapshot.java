@@ -0,0 +1,15 @@
+package dungeon.engine;
+
+/**
+ * The whole state of a game at one moment, immutable and safe to hand to any
+ * thread. Snapshots taken one move apart share all but the changed squares
+ * of their {@link PersistentGrid}. Pass one back to
+ * {@link GameEngine#restore} to return the game to that moment.
+ *
+ * @param eventSequence the engine's event log sequence at the time; the log
+ *                      itself is not rolled back
+ */
+public record GameSnapshot(PersistentGrid grid, int playerX, int playerY, int hp, int score,
+                           int stepsRemaining, int level, int difficulty, boolean gameWon,
+                           Cell.Type lastDamageSource, long combatDraws, long eventSequence) {
+}
@@ -0,0 +1,37 @@
+package dungeon.engine;
+
+import java.io.Serializable;
+
+/**
+ * Storage backend for a dungeon level. The engine only talks to the map through
+ * this interface so the classic {@code Cell[][]} layout and the packed layout
+ * used by headless engines are interchangeable.
+ */
+public interface Grid extends GridView, Serializable {
+
+    enum Backend {
+        /** One {@link Cell} object per square, as used by the GUI and the tests. */
+        OBJECT,
+        /** One byte per square holding the {@link Cell.Type} ordinal. */
+        PACKED;
+
+        public Grid create(int width, int height) {
+            return this == PACKED ? new PackedGrid(width, height) : new ObjectGrid(width, height);
+        }
+    }
+
+    /**
+     * Returns the cell used for interaction at (x, y). Packed grids hand out a
+     * shared flyweight, so callers must not rely on its coordinates.
+     */
+    Cell getCell(int x, int y);
+
+    void setType(int x, int y, Cell.Type type);
+
+    /**
+     * Returns the map as a {@code Cell[][]} indexed [y][x]. For the object
+     * backend this is the live array; the packed backend builds a view of
+     * flyweights, so writes to it are not seen by the engine.
+     */
+    Cell[][] asArray();
+}
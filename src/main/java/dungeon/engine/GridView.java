@@ -0,0 +1,13 @@
+package dungeon.engine;
+
+/**
+ * Read-only access to a map. {@link Grid} adds writes on top; snapshot maps
+ * such as {@link PersistentGrid} implement only this, so they cannot be
+ * handed to code that expects to change the squares.
+ */
+public interface GridView {
+    int getWidth();
+    int getHeight();
+
+    Cell.Type getType(int x, int y);
+}
@@ -0,0 +1,96 @@
+package dungeon.engine;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of non-negative longs (nanoseconds, bytes, counts)
+ * with log-linear buckets in the style of HdrHistogram. Values below 16 get
+ * a bucket each. Above that, every power of two is split into 8 buckets, so
+ * a reported percentile is never more than 12.5% above the true value.
+ * Recording touches one {@link LongAdder} bucket, a sum and a maximum, so
+ * threads recording at once rarely contend.
+ */
+public final class Histogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB_BUCKETS;
+    // Enough for any positive long
+    private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB_BUCKETS;
+
+    /** A point-in-time copy; counts are per bucket. */
+    public record Snapshot(long count, long sum, long max, long[] counts) {
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * The smallest bucket bound that at least {@code p} percent of values
+         * are at or below, capped at the largest value recorded.
+         */
+        public long percentile(double p) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * count));
+            long seen = 0;
+            for (int b = 0; b < counts.length; b++) {
+                seen += counts[b];
+                if (seen >= rank) return Math.min(max, upperBound(b));
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                    count, mean(), percentile(50), percentile(90), percentile(99), percentile(99.9), max);
+        }
+    }
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int b = 0; b < BUCKETS; b++) counts[b] = new LongAdder();
+    }
+
+    /** Records one value; negative values count as 0. */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts[bucket(v)].increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public Snapshot snapshot() {
+        long[] c = new long[BUCKETS];
+        long n = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            c[b] = counts[b].sum();
+            n += c[b];
+        }
+        return new Snapshot(n, sum.sum(), max.get(), c);
+    }
+
+    public void reset() {
+        for (LongAdder c : counts) c.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    static int bucket(long v) {
+        if (v < LINEAR) return (int) v;
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        return LINEAR + (exponent - SUB_BITS - 1) * SUB_BUCKETS
+                + (int) ((v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    // Largest value that falls in bucket b
+    static long upperBound(int b) {
+        if (b < LINEAR) return b;
+        int exponent = (b - LINEAR) / SUB_BUCKETS + SUB_BITS + 1;
+        long sub = SUB_BUCKETS + (b - LINEAR) % SUB_BUCKETS;
+        long lower = sub << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,228 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe top-K score table shared by every engine in the JVM.
+ *
+ * <p>Scores live in a concurrent skip list ordered best first, so submitting
+ * never takes a lock: a score that cannot beat the current K-th entry is turned
+ * away after one read, and one that can is inserted and the list trimmed back
+ * to K. Persistent boards append every score that made the table to a text log
+ * ("score,date" per line). A background thread writes and syncs whatever has
+ * queued up every {@link #FLUSH_INTERVAL_MS} ms in one go, so a burst of games
+ * costs one write rather than one file rewrite per game. The log is compacted
+ * back to K lines when it is opened.
+ */
+public class Leaderboard implements AutoCloseable {
+    public static final int DEFAULT_SIZE = 5;
+    public static final long FLUSH_INTERVAL_MS = 200;
+    public static final String SHARED_LOG = "scores.log";
+    private static final String LEGACY_FILE = "scores.dat";
+
+    /** One table entry. */
+    public record Entry(int score, LocalDate date) {}
+
+    // Ties go to whoever got there first
+    private record Ranked(int score, long sequence) implements Comparable<Ranked> {
+        @Override
+        public int compareTo(Ranked o) {
+            int c = Integer.compare(o.score, score);
+            return c != 0 ? c : Long.compare(sequence, o.sequence);
+        }
+    }
+
+    private static Leaderboard shared;
+
+    private final int capacity;
+    private final ConcurrentSkipListMap<Ranked, Entry> table = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Persistence; all null for an in-memory board
+    private final Path log;
+    private final ConcurrentLinkedQueue<Entry> pending;
+    private final ScheduledExecutorService flusher;
+
+    /** An in-memory board that never touches the disk. */
+    public Leaderboard(int capacity) {
+        this(capacity, null);
+    }
+
+    private Leaderboard(int capacity, Path log) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        this.capacity = capacity;
+        this.log = log;
+        if (log != null) {
+            pending = new ConcurrentLinkedQueue<>();
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "leaderboard-flush");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            pending = null;
+            flusher = null;
+        }
+    }
+
+    /**
+     * Opens a board backed by an append-only log, loading and compacting what
+     * the log already holds.
+     */
+    public static Leaderboard open(Path log, int capacity) throws IOException {
+        Leaderboard board = new Leaderboard(capacity, log);
+        if (Files.exists(log)) {
+            int lines = 0;
+            for (String line : Files.readAllLines(log, StandardCharsets.UTF_8)) {
+                int comma = line.indexOf(',');
+                if (comma < 0) continue; // torn final line from a crash
+                try {
+                    board.insert(new Entry(Integer.parseInt(line.substring(0, comma)),
+                            LocalDate.parse(line.substring(comma + 1))));
+                    lines++;
+                } catch (RuntimeException e) {
+                    // skip the unreadable line
+                }
+            }
+            if (lines > capacity) board.compact();
+        }
+        return board;
+    }
+
+    /**
+     * The board used by engines that keep scores: {@value #SHARED_LOG} in the
+     * working directory, seeded once from an older {@value #LEGACY_FILE}.
+     */
+    public static synchronized Leaderboard shared() {
+        if (shared == null) {
+            Path log = Path.of(SHARED_LOG);
+            try {
+                boolean migrate = !Files.exists(log) && Files.exists(Path.of(LEGACY_FILE));
+                shared = open(log, DEFAULT_SIZE);
+                if (migrate) {
+                    for (Entry e : GameEngine.readLegacyScores(Path.of(LEGACY_FILE))) {
+                        if (shared.insert(e)) shared.pending.add(e);
+                    }
+                    shared.flush();
+                }
+            } catch (IOException e) {
+                System.out.println("Error loading scores: " + e.getMessage());
+                shared = new Leaderboard(DEFAULT_SIZE);
+            }
+            Leaderboard board = shared;
+            Runtime.getRuntime().addShutdownHook(new Thread(board::close, "leaderboard-close"));
+        }
+        return shared;
+    }
+
+    /**
+     * Offers a score dated today. Returns whether it made the table; only
+     * those are queued for the log.
+     */
+    public boolean submit(int score) {
+        Entry entry = new Entry(score, LocalDate.now());
+        if (!insert(entry)) return false;
+        if (pending != null) pending.add(entry);
+        return true;
+    }
+
+    private boolean insert(Entry entry) {
+        // Lock-free rejection: one read when the table is already full
+        if (size.get() >= capacity) {
+            Map.Entry<Ranked, Entry> last = table.lastEntry();
+            if (last != null && entry.score() <= last.getKey().score()) return false;
+        }
+        Ranked key = new Ranked(entry.score(), sequence.getAndIncrement());
+        table.put(key, entry);
+        size.incrementAndGet();
+        // Claim each eviction on the counter before polling so racing threads
+        // never trim the table below capacity between them
+        for (int n = size.get(); n > capacity; n = size.get()) {
+            if (size.compareAndSet(n, n - 1)) table.pollLastEntry();
+        }
+        // A racing thread may have evicted this entry, so ask the table rather than trusting our own polls
+        return table.containsKey(key);
+    }
+
+    public int getCapacity() { return capacity; }
+
+    /** The table, best first. */
+    public List<Entry> top() {
+        List<Entry> entries = new ArrayList<>(capacity);
+        for (Entry e : table.values()) {
+            if (entries.size() == capacity) break;
+            entries.add(e);
+        }
+        return entries;
+    }
+
+    /** Writes and syncs everything submitted so far in one append. */
+    public synchronized void flush() throws IOException {
+        if (pending == null || pending.isEmpty()) return;
+        StringBuilder batch = new StringBuilder();
+        Entry e;
+        while ((e = pending.poll()) != null) {
+            batch.append(e.score()).append(',').append(e.date()).append('\n');
+        }
+        ByteBuffer data = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (data.hasRemaining()) ch.write(data);
+            ch.force(false);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.out.println("Error saving scores: " + e.getMessage());
+        }
+    }
+
+    // Rewrites the log with just the current table
+    private synchronized void compact() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Entry e : top()) sb.append(e.score()).append(',').append(e.date()).append('\n');
+        Path tmp = Files.createTempFile(log.toAbsolutePath().getParent(), log.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(tmp, sb, StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, log, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, log, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flusher == null) return;
+        flusher.shutdown();
+        flushQuietly();
+    }
+}
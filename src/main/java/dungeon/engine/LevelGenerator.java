@@ -0,0 +1,146 @@
+package dungeon.engine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Lays out one level. Free interior squares are kept in a flat index array and
+ * drawn with a partial Fisher-Yates shuffle, so generation is a single pass
+ * over the map plus one swap per placed item, whatever the map size.
+ *
+ * <p>{@link #generateSolvable} adds rejection sampling on top: candidate
+ * levels are checked with a {@link PathSolver} and regenerated until one can
+ * be cleared.
+ */
+public final class LevelGenerator {
+    /** Candidates tried before giving up and keeping the first one. */
+    public static final int MAX_ATTEMPTS = 64;
+
+    /**
+     * A generated level. {@code unsolvable} is set when solvability was asked
+     * for and no candidate passed, so the grid is the first candidate and the
+     * player may have no way to clear it.
+     */
+    public record Generated(Grid grid, boolean unsolvable) {}
+
+    private LevelGenerator() {}
+
+    /**
+     * The level a game with this seed plays at the given level number: drawn
+     * from the level's own stream, and checked with {@link #generateSolvable}
+     * when the config asks for it. {@code hp} and {@code steps} are what the
+     * player has on arrival.
+     */
+    public static Generated forGame(DungeonConfig config, Grid.Backend backend, long gameSeed, int level,
+                                    int difficulty, int hp, int steps) {
+        long levelSeed = levelSeed(gameSeed, level);
+        return config.solvable()
+                ? generateSolvable(config, backend, level, difficulty, levelSeed, hp, steps)
+                : new Generated(generate(config, backend, level, difficulty, new SplittableRandom(levelSeed)), false);
+    }
+
+    static long levelSeed(long gameSeed, int level) {
+        return gameSeed ^ (level * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Generates a level the player can clear from the start square with the
+     * given HP and steps, even if every trap, mutant and ranged shot on the way
+     * hits. The first candidate is drawn from {@code levelSeed} exactly as
+     * {@link #generate} would. If it fails, further candidates are generated and
+     * checked in parallel, one common-pool batch at a time. The lowest-numbered
+     * candidate that passes wins, so the result depends only on the seed and not
+     * on thread timing. After {@link #MAX_ATTEMPTS} failures the first candidate
+     * is kept, which bounds the setup time on settings where hardly anything
+     * passes; the result is then flagged {@link Generated#unsolvable} so the
+     * caller can tell.
+     *
+     * <p>Each place in a batch has its own solver, reused for the candidates it
+     * checks in later batches. The solvers belong to this call, so nothing
+     * sized for the map outlives it.
+     */
+    public static Generated generateSolvable(DungeonConfig config, Grid.Backend backend, int level, int difficulty,
+                                             long levelSeed, int hp, int steps) {
+        Grid first = generate(config, backend, level, difficulty, new SplittableRandom(levelSeed));
+        int batch = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        PathSolver[] validators = new PathSolver[batch];
+        validators[0] = new PathSolver(PathSolver.Weights.SHORTEST);
+        if (isSolvable(validators[0], config, first, hp, steps)) return new Generated(first, false);
+
+        for (int from = 1; from < MAX_ATTEMPTS; from += batch) {
+            int start = from;
+            Grid[] passed = new Grid[Math.min(batch, MAX_ATTEMPTS - from)];
+            IntStream.range(0, passed.length).parallel().forEach(i -> {
+                SplittableRandom random = new SplittableRandom(levelSeed ^ ((start + i) * 0xBF58476D1CE4E5B9L));
+                Grid candidate = generate(config, backend, level, difficulty, random);
+                if (validators[i] == null) validators[i] = new PathSolver(PathSolver.Weights.SHORTEST);
+                if (isSolvable(validators[i], config, candidate, hp, steps)) passed[i] = candidate;
+            });
+            for (Grid g : passed) {
+                if (g != null) return new Generated(g, false);
+            }
+        }
+        return new Generated(first, true);
+    }
+
+    public static boolean isSolvable(DungeonConfig config, Grid map, int hp, int steps) {
+        return isSolvable(new PathSolver(PathSolver.Weights.SHORTEST), config, map, hp, steps);
+    }
+
+    private static boolean isSolvable(PathSolver solver, DungeonConfig config, Grid map, int hp, int steps) {
+        return solver.reachable(map, config.startX(), config.startY(), hp, steps);
+    }
+
+    public static Grid generate(DungeonConfig config, Grid.Backend backend, int level, int difficulty,
+                                SplittableRandom random) {
+        int width = config.width();
+        int height = config.height();
+        Grid map = backend.create(width, height);
+        int startIndex = config.startY() * width + config.startX();
+
+        // Walls round the edge; every other square starts empty and, apart
+        // from the player's start, goes into the free list
+        int[] free = new int[config.interiorCells()];
+        int freeCount = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (x == 0 || x == width - 1 || y == 0 || y == height - 1) {
+                    map.setType(x, y, Cell.Type.WALL);
+                } else {
+                    map.setType(x, y, Cell.Type.EMPTY);
+                    int index = y * width + x;
+                    if (index != startIndex) free[freeCount++] = index;
+                }
+            }
+        }
+
+        if (level == 1) {
+            // Create starting area
+            map.setType(config.startX(), height - 1, Cell.Type.ENTRY);
+        }
+
+        int taken = 0;
+        taken = place(map, free, freeCount, taken, 1, Cell.Type.LADDER, random);
+        taken = place(map, free, freeCount, taken, config.count(config.goldDensity()), Cell.Type.GOLD, random);
+        taken = place(map, free, freeCount, taken, config.count(config.trapDensity()), Cell.Type.TRAP, random);
+        taken = place(map, free, freeCount, taken, config.count(config.meleeDensity()), Cell.Type.MELEE_MUTANT, random);
+        taken = place(map, free, freeCount, taken, config.rangedMutants(difficulty), Cell.Type.RANGED_MUTANT, random);
+        place(map, free, freeCount, taken, config.count(config.potionDensity()), Cell.Type.HEALTH_POTION, random);
+        return map;
+    }
+
+    // Moves a random untaken square to the front of the free list and fills it; returns the new taken count
+    private static int place(Grid map, int[] free, int freeCount, int taken, int count, Cell.Type type,
+                             SplittableRandom random) {
+        int width = map.getWidth();
+        for (int i = 0; i < count && taken < freeCount; i++, taken++) {
+            int pick = taken + random.nextInt(freeCount - taken);
+            int index = free[pick];
+            free[pick] = free[taken];
+            free[taken] = index;
+            map.setType(index % width, index / width, type);
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,184 @@
+package dungeon.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds levels ahead of time on a background thread so starting a game or
+ * climbing a ladder does not stall the caller (in the GUI, the FX thread).
+ *
+ * <p>Two kinds of work are done. For every difficulty a bounded queue of
+ * first levels is kept full, each under a fresh random seed, and
+ * {@link #take} hands one out together with its seed. While a level is being
+ * played, {@link #prefetch} builds that game's next level from the game's
+ * seed. Either way, when nothing is ready the caller builds the level itself
+ * through {@link LevelGenerator#forGame}. A pooled level is therefore always
+ * the same one the seed would have produced without the pool.
+ */
+public class LevelPool implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 4;
+    private static final int DIFFICULTIES = 11;
+
+    /**
+     * A first level and the game seed it was built from; {@code unsolvable} as
+     * in {@link LevelGenerator.Generated}.
+     */
+    public record Level(long seed, Grid grid, boolean unsolvable) {}
+
+    /** A next level being built for one game; hand it back to {@link #collect}. */
+    public record Pending(long seed, int level, int difficulty, Future<Grid> grid) {}
+
+    private static LevelPool shared;
+
+    private final DungeonConfig config;
+    private final Grid.Backend backend;
+    private final int capacity;
+    private final List<ArrayBlockingQueue<Level>> ready;
+    private final AtomicBoolean[] refilling;
+    private final ExecutorService producer;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+
+    public LevelPool(DungeonConfig config, Grid.Backend backend, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        this.config = config;
+        this.backend = backend;
+        this.capacity = capacity;
+        List<ArrayBlockingQueue<Level>> queues = new ArrayList<>(DIFFICULTIES);
+        refilling = new AtomicBoolean[DIFFICULTIES];
+        for (int d = 0; d < DIFFICULTIES; d++) {
+            queues.add(new ArrayBlockingQueue<>(capacity));
+            refilling[d] = new AtomicBoolean();
+        }
+        ready = List.copyOf(queues);
+        producer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "level-pool");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int d = 0; d < DIFFICULTIES; d++) refill(d);
+    }
+
+    /** The pool the GUI starts its games from: classic settings on the object backend. */
+    public static synchronized LevelPool shared() {
+        if (shared == null) shared = new LevelPool(DungeonConfig.CLASSIC, Grid.Backend.OBJECT, DEFAULT_CAPACITY);
+        return shared;
+    }
+
+    public DungeonConfig getConfig() { return config; }
+    public Grid.Backend getBackend() { return backend; }
+
+    /** A first level on a fresh seed; built on the spot if none is waiting. */
+    public Level take(int difficulty) {
+        if (difficulty < 0 || difficulty >= DIFFICULTIES) {
+            misses.increment();
+            return build(difficulty);
+        }
+        Level level = ready.get(difficulty).poll();
+        refill(difficulty);
+        if (level != null) {
+            hits.increment();
+            return level;
+        }
+        misses.increment();
+        return build(difficulty);
+    }
+
+    /** Starts building a game's level in the background. */
+    public Pending prefetch(long seed, int level, int difficulty) {
+        // Arrival HP and steps are not known yet, so only the first candidate is built; collect checks it
+        DungeonConfig plain = config.withSolvable(false);
+        try {
+            Future<Grid> grid = producer.submit(
+                    () -> LevelGenerator.forGame(plain, backend, seed, level, difficulty, 0, 0).grid());
+            return new Pending(seed, level, difficulty, grid);
+        } catch (RuntimeException e) {
+            // Pool closed; collect will build it on the spot
+            return new Pending(seed, level, difficulty, null);
+        }
+    }
+
+    /**
+     * The level a prefetch was building. If it is not finished, or the config
+     * wants solvable levels and it fails the check for this HP and step
+     * count, the level is built on the calling thread instead.
+     */
+    public LevelGenerator.Generated collect(Pending pending, int hp, int steps) {
+        Future<Grid> future = pending.grid();
+        if (future != null && future.isDone() && !future.isCancelled()) {
+            try {
+                Grid grid = future.get();
+                if (!config.solvable() || LevelGenerator.isSolvable(config, grid, hp, steps)) {
+                    hits.increment();
+                    return new LevelGenerator.Generated(grid, false);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // fall through and build it here
+            }
+        } else if (future != null) {
+            future.cancel(false);
+        }
+        misses.increment();
+        return LevelGenerator.forGame(config, backend, pending.seed(), pending.level(), pending.difficulty(),
+                hp, steps);
+    }
+
+    // Queues a background top-up of one difficulty unless one is already pending
+    private void refill(int difficulty) {
+        if (ready.get(difficulty).remainingCapacity() == 0 || !refilling[difficulty].compareAndSet(false, true)) return;
+        try {
+            producer.execute(() -> {
+                try {
+                    while (ready.get(difficulty).remainingCapacity() > 0) {
+                        if (!ready.get(difficulty).offer(build(difficulty))) break;
+                        refills.increment();
+                    }
+                } finally {
+                    refilling[difficulty].set(false);
+                }
+                // A take that raced the end of this run found the flag still set
+                refill(difficulty);
+            });
+        } catch (RuntimeException e) {
+            refilling[difficulty].set(false); // closed
+        }
+    }
+
+    private Level build(int difficulty) {
+        long seed = ThreadLocalRandom.current().nextLong();
+        LevelGenerator.Generated level = LevelGenerator.forGame(config, backend, seed, 1, difficulty,
+                Player.START_HP, config.stepBudget());
+        return new Level(seed, level.grid(), level.unsolvable());
+    }
+
+    /** Levels handed out ready-made, by {@link #take} or {@link #collect}. */
+    public long getHits() { return hits.sum(); }
+    /** Levels the caller had to build itself. */
+    public long getMisses() { return misses.sum(); }
+    /** First levels built in the background to top up the queues. */
+    public long getRefills() { return refills.sum(); }
+    public int getReady(int difficulty) { return ready.get(difficulty).size(); }
+    public int getCapacity() { return capacity; }
+
+    @Override
+    public String toString() {
+        return String.format("LevelPool[hits=%d, misses=%d, refills=%d]", getHits(), getMisses(), getRefills());
+    }
+
+    @Override
+    public void close() {
+        producer.shutdownNow();
+    }
+}
@@ -0,0 +1,106 @@
+package dungeon.engine;
+
+/**
+ * What one call to {@link GameEngine#move} did, as flags and amounts. Each
+ * engine owns a single result and fills it in again on every move, so moving
+ * allocates nothing. Read it before the next move, or {@link #copy} it.
+ * Text is only built when {@link #describe} is called.
+ */
+public final class MoveResult {
+    /** The player took a step. */
+    public static final int MOVED = 1;
+    /** The target square was a wall or off the map; nothing else changed. */
+    public static final int BLOCKED = 1 << 1;
+    /** Something hit the player; see {@link #getDamage}. */
+    public static final int DAMAGED = 1 << 2;
+    /** A potion restored HP; see {@link #getHealed}. */
+    public static final int HEALED = 1 << 3;
+    /** Gold was picked up. */
+    public static final int GOLD = 1 << 4;
+    /** A mutant on the square entered was defeated. */
+    public static final int KILLED = 1 << 5;
+    /** The ladder was reached and the next level generated. */
+    public static final int LEVEL_UP = 1 << 6;
+    /** The ladder on the last level was reached. */
+    public static final int WON = 1 << 7;
+    /** HP ran out. */
+    public static final int DIED = 1 << 8;
+    /** The last step was used without reaching the ladder. */
+    public static final int OUT_OF_STEPS = 1 << 9;
+
+    private int flags;
+    private int damage;
+    private int healed;
+    private int scoreGained;
+    private Cell.Type entered;
+
+    void reset() {
+        flags = 0;
+        damage = 0;
+        healed = 0;
+        scoreGained = 0;
+        entered = null;
+    }
+
+    void set(int flag) { flags |= flag; }
+
+    void enter(Cell.Type type) { entered = type; }
+
+    void damage(int amount) {
+        flags |= DAMAGED;
+        damage += amount;
+    }
+
+    void heal(int amount) {
+        flags |= HEALED;
+        healed += amount;
+    }
+
+    void score(int amount) { scoreGained += amount; }
+
+    public int getFlags() { return flags; }
+    public boolean has(int flag) { return (flags & flag) != 0; }
+    public boolean moved() { return (flags & MOVED) != 0; }
+    public boolean ended() { return (flags & (WON | DIED | OUT_OF_STEPS)) != 0; }
+    // HP lost on this move, from the square entered and from ranged attacks
+    public int getDamage() { return damage; }
+    public int getHealed() { return healed; }
+    public int getScoreGained() { return scoreGained; }
+    // Type of the square stepped onto, before it was used up; null when blocked
+    public Cell.Type getEntered() { return entered; }
+
+    /** A copy that later moves will not overwrite. */
+    public MoveResult copy() {
+        MoveResult c = new MoveResult();
+        c.flags = flags;
+        c.damage = damage;
+        c.healed = healed;
+        c.scoreGained = scoreGained;
+        c.entered = entered;
+        return c;
+    }
+
+    /** The move in words, in the same phrasing as the event log. */
+    public String describe() {
+        if (has(BLOCKED)) return EventType.HIT_WALL.format(0, null);
+        if (!moved()) return "No move yet";
+        StringBuilder sb = new StringBuilder("You moved");
+        if (entered != Cell.Type.EMPTY && entered != Cell.Type.ENTRY) {
+            sb.append(" onto a ").append(entered.name().toLowerCase().replace('_', ' '));
+        }
+        if (has(GOLD)) sb.append(". ").append(EventType.GOLD_PICKED_UP.format(scoreGained, null));
+        if (has(KILLED)) sb.append(". You defeated a mutant (+").append(scoreGained).append(" score)");
+        if (has(HEALED)) sb.append(". ").append(EventType.POTION_DRUNK.format(healed, null));
+        if (has(DAMAGED)) sb.append(". You lost ").append(damage).append(" HP");
+        if (has(LEVEL_UP)) sb.append(". You climbed to the next level");
+        if (has(WON)) sb.append(". ").append(EventType.GAME_WON.format(0, null));
+        if (has(DIED)) sb.append(". You died");
+        if (has(OUT_OF_STEPS)) sb.append(". You ran out of steps");
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+}
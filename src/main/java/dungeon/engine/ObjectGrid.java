@@ -0,0 +1,46 @@
+package dungeon.engine;
+
+import dungeon.engine.cells.Cells;
+
+/**
+ * The original map layout: a {@code Cell[][]} holding one object per square.
+ */
+public class ObjectGrid implements Grid {
+    private static final long serialVersionUID = 1L;
+    private final Cell[][] cells;
+
+    public ObjectGrid(int width, int height) {
+        this.cells = new Cell[height][width];
+    }
+
+    // Wraps an existing array, e.g. one restored from an older save
+    public ObjectGrid(Cell[][] cells) {
+        this.cells = cells;
+    }
+
+    @Override
+    public int getWidth() { return cells.length == 0 ? 0 : cells[0].length; }
+
+    @Override
+    public int getHeight() { return cells.length; }
+
+    @Override
+    public Cell.Type getType(int x, int y) {
+        return cells[y][x].getType();
+    }
+
+    @Override
+    public Cell getCell(int x, int y) {
+        return cells[y][x];
+    }
+
+    @Override
+    public void setType(int x, int y, Cell.Type type) {
+        cells[y][x] = Cells.create(type, x, y);
+    }
+
+    @Override
+    public Cell[][] asArray() {
+        return cells;
+    }
+}
@@ -0,0 +1,385 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+/**
+ * Finds the cheapest route from a square to the ladder with A* over
+ * (square, HP) states. Each move costs a fixed step price, plus a price per
+ * HP the move can cost, minus a bonus per point of score it picks up. The
+ * route must keep the player alive and arrive with steps to spare.
+ *
+ * <p>Damage is taken at its worst: every trap and melee mutant hits, and every
+ * ranged mutant in reach after a move hits too. Potions are not counted. Any
+ * route returned therefore survives whatever the combat rolls are.
+ *
+ * <p>The remaining distance is priced at the full step price, as if no more
+ * score lay ahead. With no score bonus that is exact and routes are the
+ * cheapest. With a bonus, a route can cost up to step / (step - 2 * score)
+ * times the cheapest. In exchange the search stays in a narrow band around
+ * the direct line instead of flooding the map, which is what keeps 1024x1024
+ * maps fast. The price of that is that a state can be reached more cheaply
+ * after it was expanded, so each partial route is its own node with its own
+ * parent and step count, and the route is read back through those parents.
+ *
+ * <p>The cheapest way to a state is not always the shortest, and only the
+ * shortest may fit the step budget. Each state therefore keeps two nodes:
+ * its cheapest and its shortest. A new partial route is kept when it beats
+ * either, so whenever any route fits the budget one is found.
+ *
+ * <p>HP levels are stored only for the squares a search reaches, so memory
+ * follows the band the search explores rather than the size of the map.
+ * Buffers are kept between calls, and the open set is a heap of primitives.
+ * After a search that used only a small part of a large buffer, the next
+ * one gives it back, so one huge map does not pin memory for the life of
+ * the solver. A solver is not thread-safe; give each thread its own.
+ */
+public final class PathSolver {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int RANGED_REACH = ThreatMap.REACH;
+    private static final int MAX_HP = 10;
+    private static final int HP_LEVELS = MAX_HP + 1;
+    // Buffers up to this many entries are kept whatever the next map is; bigger ones can shrink
+    private static final int KEEP = 1 << 16;
+    private static final int MIN_BLOCKS = 64;
+    private static final int MIN_NODES = 256;
+
+    /**
+     * Prices used to rank routes. {@code step} must be more than twice
+     * {@code score}, so that no move is free.
+     *
+     * @param step   price of one move
+     * @param damage price per HP a move can cost
+     * @param score  bonus per point of score a move picks up
+     */
+    public record Weights(int step, int damage, int score) {
+        /** A trap or melee hit weighs as much as one extra move, and gold almost as much. */
+        public static final Weights DEFAULT = new Weights(10, 5, 4);
+        /** Shortest survivable route, ignoring score. */
+        public static final Weights SHORTEST = new Weights(1, 0, 0);
+
+        public Weights {
+            if (step <= 2 * score || damage < 0 || score < 0) {
+                throw new IllegalArgumentException("Need step > 2 * score and non-negative weights");
+            }
+        }
+    }
+
+    /** A route to the ladder, as a list of moves. */
+    public static final class Route {
+        private final byte[] moves;
+        private final int hpLeft;
+        private final int scoreGained;
+
+        private Route(byte[] moves, int hpLeft, int scoreGained) {
+            this.moves = moves;
+            this.hpLeft = hpLeft;
+            this.scoreGained = scoreGained;
+        }
+
+        public int length() { return moves.length; }
+        public Direction move(int i) { return DIRECTIONS[moves[i]]; }
+        // HP on arrival if every possible hit lands
+        public int getHpLeft() { return hpLeft; }
+        public int getScoreGained() { return scoreGained; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(moves.length);
+            for (byte m : moves) sb.append(DIRECTIONS[m].getKey());
+            return sb.toString();
+        }
+    }
+
+    private final Weights weights;
+
+    // Per square, rebuilt each solve; block is 1 + the block of HP levels a reached square was given, or 0
+    private byte[] damage = new byte[0];
+    private byte[] gain = new byte[0];
+    private int[] block = new int[0];
+    private int width;
+
+    // Per reached square, handed out in the order squares are reached
+    private int[] blockSquare = new int[MIN_BLOCKS];
+    private int blocks;
+
+    // Per state, at slot (block * HP_LEVELS + hp), four ints side by side: its cheapest node and that node's
+    // cost, then its shortest node and that node's steps. Nodes are -1 until the state is reached
+    private int[] best = new int[MIN_BLOCKS * HP_LEVELS * 4];
+
+    // Per node, a partial route, three ints side by side: the state it ends in, the node before it (-1 at
+    // the start) and its steps. nodeVia holds the move from the node before; the cost rides in the heap key
+    private int[] node = new int[MIN_NODES * 3];
+    private byte[] nodeVia = new byte[MIN_NODES];
+    private int nodes;
+
+    // Binary min-heap: (priority << 32 | MAX_VALUE - cost) keys, deeper first on ties, beside their nodes
+    private long[] heap = new long[256];
+    private int[] heapNodes = new int[256];
+    private int heapSize;
+
+    public PathSolver() {
+        this(Weights.DEFAULT);
+    }
+
+    public PathSolver(Weights weights) {
+        this.weights = weights;
+    }
+
+    /** The best route for the engine's player on its current level, or null if there is none. */
+    public Route solve(GameEngine engine) {
+        Player p = engine.getPlayer();
+        return route(search(engine.getGrid(), engine.getThreatMap(), p.getX(), p.getY(), p.getHp(),
+                engine.getStepsRemaining()));
+    }
+
+    /**
+     * The best route from (x, y) with the given HP and steps left, or null if
+     * no route reaches the ladder alive without running out of steps.
+     */
+    public Route solve(Grid map, int x, int y, int hp, int stepsRemaining) {
+        return route(search(map, null, x, y, hp, stepsRemaining));
+    }
+
+    private Route route(int goal) {
+        if (goal < 0) return null;
+
+        byte[] moves = new byte[node[goal * 3 + 2]];
+        int score = 0;
+        int n = goal;
+        for (int i = moves.length - 1; i >= 0; i--) {
+            score += gain[blockSquare[node[n * 3] / HP_LEVELS]];
+            moves[i] = nodeVia[n];
+            n = node[n * 3 + 1];
+        }
+        return new Route(moves, node[goal * 3] % HP_LEVELS, score);
+    }
+
+    /** Whether any route reaches the ladder; the same search as {@link #solve} without building the route. */
+    public boolean reachable(Grid map, int x, int y, int hp, int stepsRemaining) {
+        return search(map, null, x, y, hp, stepsRemaining) >= 0;
+    }
+
+    /** The first move of the best route for the engine's player, or null if there is none. */
+    public Direction advise(GameEngine engine) {
+        Player p = engine.getPlayer();
+        int goal = search(engine.getGrid(), engine.getThreatMap(), p.getX(), p.getY(), p.getHp(),
+                engine.getStepsRemaining());
+        if (goal < 0 || node[goal * 3 + 2] == 0) return null;
+        int n = goal;
+        while (node[n * 3 + 2] > 1) n = node[n * 3 + 1];
+        return DIRECTIONS[nodeVia[n]];
+    }
+
+    // A* from the start; returns the node of the best ladder route found, or -1
+    private int search(Grid map, ThreatMap threats, int startX, int startY, int hp, int stepsRemaining) {
+        hp = Math.min(hp, MAX_HP);
+        if (hp <= 0) return -1;
+        reset();
+        int goalSquare = prepare(map, threats);
+        if (goalSquare < 0) return -1;
+        int goalX = goalSquare % width;
+        int goalY = goalSquare / width;
+        int height = map.getHeight();
+        // Arriving with no steps left loses before the ladder counts
+        int maxSteps = stepsRemaining - 1;
+        int step = weights.step;
+
+        int start = reach(startY * width + startX) * HP_LEVELS + hp;
+        int first = addNode(start, -1, 0, (byte) 0);
+        best[start * 4] = first;
+        best[start * 4 + 1] = 0;
+        best[start * 4 + 2] = first;
+        best[start * 4 + 3] = 0;
+        push(first, (Math.abs(goalX - startX) + Math.abs(goalY - startY)) * step, 0);
+
+        while (heapSize > 0) {
+            int n = heapNodes[0];
+            int g = Integer.MAX_VALUE - (int) pop();
+            int slot = node[n * 3];
+            // Stale: a later node beat this one on both cost and steps
+            if (best[slot * 4] != n && best[slot * 4 + 2] != n) continue;
+            int square = blockSquare[slot / HP_LEVELS];
+            if (square == goalSquare) return n;
+            int s = node[n * 3 + 2];
+            if (s >= maxSteps) continue;
+            int sx = square % width;
+            int sy = square / width;
+            int h = slot % HP_LEVELS;
+
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int nx = sx + DIRECTIONS[d].getDx();
+                int ny = sy + DIRECTIONS[d].getDy();
+                // Same bounds the engine's isValidMove uses
+                if (nx < 1 || ny < 1 || nx > width - 2 || ny > height - 2) continue;
+                int next = ny * width + nx;
+                int hit = damage[next];
+                if (hit < 0 || h - hit <= 0) continue; // wall, or the move could kill
+                int nextCost = g + weights.step + weights.damage * hit - weights.score * gain[next];
+                int b = (reach(next) * HP_LEVELS + h - hit) * 4;
+                boolean cheaper = best[b] < 0 || nextCost < best[b + 1];
+                boolean shorter = best[b + 2] < 0 || s + 1 < best[b + 3];
+                if (!cheaper && !shorter) continue;
+                int child = addNode(b / 4, n, s + 1, (byte) d);
+                if (cheaper) {
+                    best[b] = child;
+                    best[b + 1] = nextCost;
+                }
+                if (shorter) {
+                    best[b + 2] = child;
+                    best[b + 3] = s + 1;
+                }
+                push(child, nextCost + (Math.abs(goalX - nx) + Math.abs(goalY - ny)) * step, nextCost);
+            }
+        }
+        return -1;
+    }
+
+    // Sizes the buffers for this map and fills in the per-square damage and score; returns the ladder square.
+    // Ranged threat comes from the engine's threat map when there is one, otherwise from the mutants found
+    private int prepare(Grid map, ThreatMap threats) {
+        width = map.getWidth();
+        int height = map.getHeight();
+        int squares = width * height;
+        if (damage.length < squares || (damage.length > KEEP && damage.length / 4 > squares)) {
+            damage = new byte[squares];
+            gain = new byte[squares];
+            block = new int[squares];
+        }
+
+        int goal = -1;
+        Arrays.fill(damage, 0, squares, (byte) 0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                Cell.Type type = map.getType(x, y);
+                gain[i] = 0;
+                switch (type) {
+                    case WALL -> damage[i] = -1;
+                    // Ranged threat from a mutant earlier in the scan may already be here
+                    case TRAP -> damage[i] += 2;
+                    case GOLD -> gain[i] = 2;
+                    case MELEE_MUTANT -> {
+                        damage[i] += 2;
+                        gain[i] = 2;
+                    }
+                    case RANGED_MUTANT -> {
+                        gain[i] = 2;
+                        if (threats == null) {
+                            threaten(x + RANGED_REACH, y, width, height);
+                            threaten(x - RANGED_REACH, y, width, height);
+                            threaten(x, y + RANGED_REACH, width, height);
+                            threaten(x, y - RANGED_REACH, width, height);
+                        }
+                    }
+                    case LADDER -> {
+                        if (goal < 0) goal = i;
+                    }
+                    default -> { }
+                }
+                if (threats != null && damage[i] >= 0) {
+                    damage[i] = (byte) Math.min(MAX_HP + 1, damage[i] + 2 * threats.count(x, y));
+                }
+            }
+        }
+        return goal;
+    }
+
+    // Adds one ranged hit to the square, unless it is off the map or a wall
+    private void threaten(int x, int y, int width, int height) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return;
+        int i = y * width + x;
+        if (damage[i] >= 0) damage[i] = (byte) Math.min(MAX_HP + 1, damage[i] + 2);
+    }
+
+    // Forgets the squares and routes the last search reached, shrinking its buffers if it used a small part
+    // of them. Runs before prepare, while block still matches the squares in blockSquare
+    private void reset() {
+        for (int b = 0; b < blocks; b++) block[blockSquare[b]] = 0;
+        if (best.length > KEEP && blocks * HP_LEVELS * 4 * 8 < best.length) {
+            int size = Math.max(MIN_BLOCKS, blocks * 2);
+            blockSquare = new int[size];
+            best = new int[size * HP_LEVELS * 4];
+        }
+        if (nodeVia.length > KEEP && nodes * 8 < nodeVia.length) {
+            int size = Math.max(MIN_NODES, nodes * 2);
+            node = new int[size * 3];
+            nodeVia = new byte[size];
+        }
+        if (heap.length > KEEP) {
+            heap = new long[256];
+            heapNodes = new int[256];
+        }
+        blocks = 0;
+        nodes = 0;
+        heapSize = 0;
+    }
+
+    // The block of HP levels for a square, giving it one the first time the search reaches it
+    private int reach(int square) {
+        int b = block[square] - 1;
+        if (b >= 0) return b;
+        if (blocks == blockSquare.length) {
+            int size = blocks * 2;
+            blockSquare = Arrays.copyOf(blockSquare, size);
+            best = Arrays.copyOf(best, size * HP_LEVELS * 4);
+        }
+        b = blocks++;
+        blockSquare[b] = square;
+        block[square] = b + 1;
+        for (int i = b * HP_LEVELS * 4; i < (b + 1) * HP_LEVELS * 4; i += 2) best[i] = -1;
+        return b;
+    }
+
+    private int addNode(int slot, int parent, int s, byte d) {
+        if (nodes == nodeVia.length) {
+            int size = nodes * 2;
+            node = Arrays.copyOf(node, size * 3);
+            nodeVia = Arrays.copyOf(nodeVia, size);
+        }
+        int i = nodes * 3;
+        node[i] = slot;
+        node[i + 1] = parent;
+        node[i + 2] = s;
+        nodeVia[nodes] = d;
+        return nodes++;
+    }
+
+    private void push(int node, int priority, int c) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+        }
+        long key = ((long) priority << 32) | (Integer.MAX_VALUE - c);
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) break;
+            heap[i] = heap[parent];
+            heapNodes[i] = heapNodes[parent];
+            i = parent;
+        }
+        heap[i] = key;
+        heapNodes[i] = node;
+    }
+
+    // Removes the smallest key and returns it; read heapNodes[0] first for its node
+    private long pop() {
+        long top = heap[0];
+        int n = --heapSize;
+        long last = heap[n];
+        int lastNode = heapNodes[n];
+        int i = 0;
+        int half = n >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < n && heap[child + 1] < heap[child]) child++;
+            if (last <= heap[child]) break;
+            heap[i] = heap[child];
+            heapNodes[i] = heapNodes[child];
+            i = child;
+        }
+        heap[i] = last;
+        heapNodes[i] = lastNode;
+        return top;
+    }
+}
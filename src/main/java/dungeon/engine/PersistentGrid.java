@@ -0,0 +1,122 @@
+package dungeon.engine;
+
+/**
+ * Immutable map used by {@link GameSnapshot}. Squares are stored row-major
+ * as {@link Cell.Type} ordinals in the leaves of a 32-way trie. Changing a
+ * square with {@link #with} copies one 32-byte leaf and the nodes above it.
+ * Every other leaf is shared with the grid it came from. On the classic 12x12
+ * map that is one leaf and a five-slot root per change, and old versions
+ * never change. It is only a {@link GridView}, so a snapshot's map can never
+ * be passed off as a writable {@link Grid}.
+ *
+ * <p>Because unchanged subtrees are shared, {@link #forEachDifference} finds
+ * the squares two versions disagree on by comparing references, without
+ * visiting the rest of the map.
+ */
+public final class PersistentGrid implements GridView {
+    private static final Cell.Type[] TYPES = Cell.Type.values();
+    private static final int BITS = 5;
+    private static final int BRANCH = 1 << BITS;
+    private static final int MASK = BRANCH - 1;
+
+    private final int width;
+    private final int height;
+    // Bits of the square index consumed above the leaves; 0 means the root is a leaf
+    private final int shift;
+    // byte[] leaf or Object[] of children
+    private final Object root;
+
+    private PersistentGrid(int width, int height, int shift, Object root) {
+        this.width = width;
+        this.height = height;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    /** Copies any grid; O(squares), so done once per level rather than per move. */
+    public static PersistentGrid of(GridView grid) {
+        if (grid instanceof PersistentGrid p) return p;
+        int squares = grid.getWidth() * grid.getHeight();
+        int shift = 0;
+        for (long span = BRANCH; span < squares; span <<= BITS) shift += BITS;
+        return new PersistentGrid(grid.getWidth(), grid.getHeight(), shift, build(grid, shift, 0, squares));
+    }
+
+    private static Object build(GridView grid, int shift, int offset, int squares) {
+        if (shift == 0) {
+            byte[] leaf = new byte[BRANCH];
+            int width = grid.getWidth();
+            for (int j = 0; j < BRANCH && offset + j < squares; j++) {
+                int i = offset + j;
+                leaf[j] = (byte) grid.getType(i % width, i / width).ordinal();
+            }
+            return leaf;
+        }
+        int span = 1 << shift;
+        Object[] node = new Object[Math.min(BRANCH, (squares - offset + span - 1) / span)];
+        for (int k = 0; k < node.length; k++) node[k] = build(grid, shift - BITS, offset + k * span, squares);
+        return node;
+    }
+
+    @Override
+    public int getWidth() { return width; }
+
+    @Override
+    public int getHeight() { return height; }
+
+    @Override
+    public Cell.Type getType(int x, int y) {
+        int i = y * width + x;
+        Object node = root;
+        for (int s = shift; s > 0; s -= BITS) node = ((Object[]) node)[(i >>> s) & MASK];
+        return TYPES[((byte[]) node)[i & MASK]];
+    }
+
+    /** This grid with one square changed; returns {@code this} if it already holds that type. */
+    public PersistentGrid with(int x, int y, Cell.Type type) {
+        if (getType(x, y) == type) return this;
+        return new PersistentGrid(width, height, shift, set(root, shift, y * width + x, (byte) type.ordinal()));
+    }
+
+    private static Object set(Object node, int shift, int i, byte type) {
+        if (shift == 0) {
+            byte[] leaf = ((byte[]) node).clone();
+            leaf[i & MASK] = type;
+            return leaf;
+        }
+        Object[] copy = ((Object[]) node).clone();
+        int k = (i >>> shift) & MASK;
+        copy[k] = set(copy[k], shift - BITS, i, type);
+        return copy;
+    }
+
+    /**
+     * Visits every square whose type differs between this grid and
+     * {@code other}, skipping subtrees the two share. Grids of different
+     * shapes differ everywhere.
+     */
+    public void forEachDifference(PersistentGrid other, PositionIndex.Visitor visitor) {
+        if (other.width != width || other.height != height) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) visitor.visit(x, y);
+            }
+            return;
+        }
+        diff(root, other.root, shift, 0, visitor);
+    }
+
+    private void diff(Object a, Object b, int shift, int offset, PositionIndex.Visitor visitor) {
+        if (a == b) return;
+        if (shift == 0) {
+            byte[] la = (byte[]) a;
+            byte[] lb = (byte[]) b;
+            for (int j = 0; j < BRANCH; j++) {
+                if (la[j] != lb[j]) visitor.visit((offset + j) % width, (offset + j) / width);
+            }
+            return;
+        }
+        Object[] na = (Object[]) a;
+        Object[] nb = (Object[]) b;
+        for (int k = 0; k < na.length; k++) diff(na[k], nb[k], shift - BITS, offset + (k << shift), visitor);
+    }
+}
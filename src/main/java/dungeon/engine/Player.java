@@ -4,12 +4,24 @@ import java.io.Serializable;
 
 public class Player implements Serializable {
     private static final long serialVersionUID = 1L;
+    // HP at the start of a game
+    static final int START_HP = 10;
     private int x;
     private int y;
-    private int hp = 10;
+    private int hp = START_HP;
     private int score;
     private final int maxHp = 10;
 
+    public Player() {}
+
+    // Restores a saved player; see SaveCodec
+    Player(int x, int y, int hp, int score) {
+        this.x = x;
+        this.y = y;
+        this.hp = hp;
+        this.score = score;
+    }
+
     public void setPosition(int x, int y) {
         this.x = x;
         this.y = y;
@@ -0,0 +1,123 @@
+package dungeon.engine;
+
+/**
+ * Set of map squares kept as one bitset per row and one per column, so the
+ * squares on a given row or column near a point can be found without looking
+ * at the rest of the map. The engine keeps one for ranged mutants.
+ */
+public class PositionIndex {
+
+    /** Receives each indexed square found by a query. */
+    public interface Visitor {
+        void visit(int x, int y);
+    }
+
+    private final int width;
+    private final int height;
+    private final int rowWords;
+    private final int colWords;
+    private final long[] rows; // row y covers words [y * rowWords, (y + 1) * rowWords)
+    private final long[] cols; // column x covers words [x * colWords, (x + 1) * colWords)
+    private int size;
+
+    public PositionIndex(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.rowWords = (width + 63) >>> 6;
+        this.colWords = (height + 63) >>> 6;
+        this.rows = new long[height * rowWords];
+        this.cols = new long[width * colWords];
+    }
+
+    public void add(int x, int y) {
+        int rw = y * rowWords + (x >>> 6);
+        long bit = 1L << x;
+        if ((rows[rw] & bit) != 0) return;
+        rows[rw] |= bit;
+        cols[x * colWords + (y >>> 6)] |= 1L << y;
+        size++;
+    }
+
+    public void remove(int x, int y) {
+        int rw = y * rowWords + (x >>> 6);
+        long bit = 1L << x;
+        if ((rows[rw] & bit) == 0) return;
+        rows[rw] &= ~bit;
+        cols[x * colWords + (y >>> 6)] &= ~(1L << y);
+        size--;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height
+                && (rows[y * rowWords + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    public int size() { return size; }
+
+    public void clear() {
+        java.util.Arrays.fill(rows, 0);
+        java.util.Arrays.fill(cols, 0);
+        size = 0;
+    }
+
+    /**
+     * Visits the indexed squares on row cy or column cx whose distance from
+     * (cx, cy) is between minDist and maxDist inclusive (minDist &gt;= 1), in
+     * row-major order. Only the words covering that stretch are read.
+     * Returns the number of squares visited.
+     */
+    public int forEachInCross(int cx, int cy, int minDist, int maxDist, Visitor visitor) {
+        int found = 0;
+        // column above, top to bottom
+        found += scanColumn(cx, cy - maxDist, cy - minDist, visitor);
+        // the row itself, left to right
+        found += scanRow(cy, cx - maxDist, cx - minDist, visitor);
+        found += scanRow(cy, cx + minDist, cx + maxDist, visitor);
+        // column below
+        found += scanColumn(cx, cy + minDist, cy + maxDist, visitor);
+        return found;
+    }
+
+    private int scanRow(int y, int fromX, int toX, Visitor visitor) {
+        if (y < 0 || y >= height) return 0;
+        fromX = Math.max(fromX, 0);
+        toX = Math.min(toX, width - 1);
+        int found = 0;
+        int base = y * rowWords;
+        for (int w = fromX >>> 6; w <= toX >>> 6 && fromX <= toX; w++) {
+            long bits = rows[base + w] & rangeMask(w, fromX, toX);
+            while (bits != 0) {
+                int x = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                visitor.visit(x, y);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private int scanColumn(int x, int fromY, int toY, Visitor visitor) {
+        if (x < 0 || x >= width) return 0;
+        fromY = Math.max(fromY, 0);
+        toY = Math.min(toY, height - 1);
+        int found = 0;
+        int base = x * colWords;
+        for (int w = fromY >>> 6; w <= toY >>> 6 && fromY <= toY; w++) {
+            long bits = cols[base + w] & rangeMask(w, fromY, toY);
+            while (bits != 0) {
+                int y = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                visitor.visit(x, y);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // Bits of word w that fall inside [from, to]
+    private static long rangeMask(int w, int from, int to) {
+        int lo = Math.max(from - (w << 6), 0);
+        int hi = Math.min(to - (w << 6), 63);
+        return (-1L >>> (63 - hi)) & (-1L << lo);
+    }
+}
@@ -0,0 +1,131 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A recorded game: the settings, starting difficulty and seed it was played
+ * with, every move that was made, and the result the player claims. Because
+ * the seed decides every level and every combat roll, replaying the moves
+ * through a fresh engine either reproduces that result or shows it was not
+ * earned (see {@link GameEngine#applyMoves}).
+ *
+ * <p>Moves are {@link Direction} ordinals, two bits each, four to a byte,
+ * lowest bits first, so a full classic game of 100 moves packs into 25 bytes.
+ * The encoded form is big-endian:
+ *
+ * <pre>
+ * magic "MDRP" | version u8 | flags u8 (bit 0: won, bit 1: solvable levels)
+ * width u16 | height u16 | levels u16 | step budget i32 | gold, trap, melee, potion density f64 each
+ * difficulty u8 | seed i64 | score i32 | move count i32 | moves, (count + 3) / 4 bytes
+ * CRC32 of everything above, i32
+ * </pre>
+ *
+ * @param moves packed moves; only the first {@code moveCount} are meaningful
+ */
+public record Replay(DungeonConfig config, int difficulty, long seed, int moveCount, byte[] moves,
+                     int score, boolean won) {
+    public static final int VERSION = 1;
+    /** Highest starting difficulty the format can hold. */
+    public static final int MAX_DIFFICULTY = 0xFF;
+
+    private static final byte[] MAGIC = {'M', 'D', 'R', 'P'};
+    private static final int FLAG_WON = 1;
+    private static final int FLAG_SOLVABLE = 2;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int HEADER = 4 + 2 + 2 + 2 + 2 + 4 + 32 + 1 + 8 + 4 + 4;
+
+    public Replay {
+        if (difficulty < 0 || difficulty > MAX_DIFFICULTY) {
+            throw new IllegalArgumentException("Difficulty must be 0 to " + MAX_DIFFICULTY + ", got " + difficulty);
+        }
+        if (moveCount < 0 || moves.length < packedLength(moveCount)) {
+            throw new IllegalArgumentException("Need " + packedLength(moveCount) + " bytes for " + moveCount
+                    + " moves, got " + moves.length);
+        }
+    }
+
+    /** Bytes needed to pack {@code count} moves. */
+    public static int packedLength(int count) {
+        return (count + 3) >>> 2;
+    }
+
+    public Direction move(int i) {
+        return DIRECTIONS[(moves[i >>> 2] >>> ((i & 3) << 1)) & 3];
+    }
+
+    public ByteBuffer encode() {
+        int movesLength = packedLength(moveCount);
+        ByteBuffer buf = ByteBuffer.allocate(HEADER + movesLength + 4);
+        int flags = (won ? FLAG_WON : 0) | (config.solvable() ? FLAG_SOLVABLE : 0);
+        buf.put(MAGIC).put((byte) VERSION).put((byte) flags);
+        buf.putShort((short) config.width()).putShort((short) config.height())
+                .putShort((short) config.levels()).putInt(config.stepBudget());
+        buf.putDouble(config.goldDensity()).putDouble(config.trapDensity())
+                .putDouble(config.meleeDensity()).putDouble(config.potionDensity());
+        buf.put((byte) difficulty).putLong(seed).putInt(score).putInt(moveCount);
+        buf.put(moves, 0, movesLength);
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        return buf.flip();
+    }
+
+    public static Replay decode(ByteBuffer buf) throws IOException {
+        try {
+            int end = buf.limit() - 4;
+            CRC32 crc = new CRC32();
+            crc.update(buf.duplicate().limit(end));
+            if ((int) crc.getValue() != buf.getInt(end)) throw new IOException("Replay is corrupt (bad checksum)");
+
+            for (byte b : MAGIC) {
+                if (buf.get() != b) throw new IOException("Not a MiniDungeon replay");
+            }
+            int version = buf.get();
+            if (version != VERSION) throw new IOException("Unsupported replay version " + version);
+            int flags = buf.get();
+            int width = buf.getShort() & 0xFFFF;
+            int height = buf.getShort() & 0xFFFF;
+            int levels = buf.getShort() & 0xFFFF;
+            int stepBudget = buf.getInt();
+            DungeonConfig config = new DungeonConfig(width, height, levels,
+                    buf.getDouble(), buf.getDouble(), buf.getDouble(), buf.getDouble(), stepBudget,
+                    (flags & FLAG_SOLVABLE) != 0);
+            int difficulty = buf.get() & 0xFF;
+            long seed = buf.getLong();
+            int score = buf.getInt();
+            int count = buf.getInt();
+            // Checked before sizing the move array, so a forged count cannot ask for a huge one
+            if (count < 0 || count > stepBudget || count > (long) buf.remaining() * 4) {
+                throw new IOException("Replay has an impossible move count " + count);
+            }
+            byte[] moves = new byte[packedLength(count)];
+            buf.get(moves);
+            return new Replay(config, difficulty, seed, count, moves, score, (flags & FLAG_WON) != 0);
+        } catch (RuntimeException e) {
+            // Truncated buffers and bad settings surface as runtime exceptions
+            throw new IOException("Replay is corrupt: " + e, e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Replay r && difficulty == r.difficulty && seed == r.seed && moveCount == r.moveCount
+                && score == r.score && won == r.won && config.equals(r.config)
+                && Arrays.equals(moves, 0, packedLength(moveCount), r.moves, 0, packedLength(moveCount));
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(seed) * 31 + Arrays.hashCode(Arrays.copyOf(moves, packedLength(moveCount)));
+    }
+
+    @Override
+    public String toString() {
+        return "Replay[seed=" + seed + ", difficulty=" + difficulty + ", moves=" + moveCount
+                + ", score=" + score + ", won=" + won + "]";
+    }
+}
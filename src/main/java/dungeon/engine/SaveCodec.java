@@ -0,0 +1,287 @@
+package dungeon.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary save format, version 2. All values are big-endian:
+ *
+ * <pre>
+ * magic "MDSV" | version u8 | flags u8 (bit 0: log tail present, bit 1: solvable levels) | backend u8
+ * seed i64 | combat draws i64
+ * difficulty u8 | level u8 | steps remaining i32 | won u8 | last damage type u8 (0xFF = none)
+ * player x u16 | y u16 | hp u16 | score i32
+ * levels u16 | step budget i32 | gold, trap, melee, potion density f64 each   (version 2 only)
+ * width u16 | height u16 | cells, two Cell.Type ordinals per byte, high nibble first
+ * [log count u16 | per entry: length u16, UTF-8 bytes]
+ * CRC32 of everything above, i32
+ * </pre>
+ *
+ * Version 1 files have no dungeon settings block and are read with the
+ * classic settings for their map size.
+ *
+ * Files are written to a temporary sibling and renamed over the target, so a
+ * crash mid-save never leaves a half-written game. Saves made with Java
+ * serialization are still read so old games can be migrated by saving again.
+ * Such a stream is filtered before anything in it is built: only game
+ * classes, {@code java.util} and {@code java.time} values, strings, enums, boxed
+ * numbers and arrays of them are let through. Its depth is capped, and so
+ * are its array lengths and object count, which can be no more than its
+ * length in bytes.
+ */
+public final class SaveCodec {
+    public static final int VERSION = 2;
+    // Only the end of the log is kept; older lines are of no use after a reload
+    public static final int LOG_TAIL = 64;
+
+    private static final byte[] MAGIC = {'M', 'D', 'S', 'V'};
+    private static final int FLAG_LOG = 1;
+    private static final int FLAG_SOLVABLE = 2;
+    private static final int NO_DAMAGE = 0xFF;
+    private static final Cell.Type[] TYPES = Cell.Type.values();
+    private static final Grid.Backend[] BACKENDS = Grid.Backend.values();
+
+    private SaveCodec() {}
+
+    public static void write(GameEngine engine, Path path) throws IOException {
+        long start = EngineMetrics.enabled ? System.nanoTime() : 0;
+        FlightEvents.GameSaved event = new FlightEvents.GameSaved();
+        event.begin();
+        ByteBuffer data = encode(engine);
+        int size = data.remaining();
+        Path dir = path.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (data.hasRemaining()) ch.write(data);
+                ch.force(false);
+            }
+            try {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        if (EngineMetrics.enabled) EngineMetrics.saved(System.nanoTime() - start, size);
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = size;
+            event.commit();
+        }
+    }
+
+    public static GameEngine read(Path path) throws IOException {
+        long start = EngineMetrics.enabled ? System.nanoTime() : 0;
+        FlightEvents.GameLoaded event = new FlightEvents.GameLoaded();
+        event.begin();
+        ByteBuffer data;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Save file too large: " + size);
+            data = ByteBuffer.allocate((int) size);
+            while (data.hasRemaining() && ch.read(data) >= 0) { }
+            data.flip();
+        }
+        int size = data.remaining();
+        boolean legacy = isLegacy(data);
+        GameEngine engine = legacy ? readLegacy(data) : decode(data);
+        if (EngineMetrics.enabled) EngineMetrics.loaded(System.nanoTime() - start, size);
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = size;
+            event.legacy = legacy;
+            event.commit();
+        }
+        return engine;
+    }
+
+    public static ByteBuffer encode(GameEngine engine) {
+        Grid grid = engine.getGrid();
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        List<String> log = engine.getEventLog();
+        List<byte[]> tail = new ArrayList<>();
+        int tailBytes = 0;
+        for (int i = Math.max(0, log.size() - LOG_TAIL); i < log.size(); i++) {
+            byte[] line = log.get(i).getBytes(StandardCharsets.UTF_8);
+            if (line.length > 0xFFFF) line = java.util.Arrays.copyOf(line, 0xFFFF);
+            tail.add(line);
+            tailBytes += 2 + line.length;
+        }
+
+        int cellBytes = (width * height + 1) / 2;
+        int size = 4 + 3 + 16 + 8 + 10 + 38 + 4 + cellBytes + 2 + tailBytes + 4;
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        int flags = FLAG_LOG | (engine.getConfig().solvable() ? FLAG_SOLVABLE : 0);
+        buf.put(MAGIC).put((byte) VERSION).put((byte) flags);
+        buf.put((byte) (grid instanceof PackedGrid ? Grid.Backend.PACKED : Grid.Backend.OBJECT).ordinal());
+        buf.putLong(engine.getSeed()).putLong(engine.getCombatDraws());
+        buf.put(u8(engine.getDifficulty(), "Difficulty")).put(u8(engine.getCurrentLevel(), "Level"));
+        buf.putInt(engine.getStepsRemaining());
+        buf.put((byte) (engine.isGameWon() ? 1 : 0));
+        Cell.Type damage = engine.getLastDamageSource();
+        buf.put((byte) (damage == null ? NO_DAMAGE : damage.ordinal()));
+
+        Player p = engine.getPlayer();
+        buf.putShort((short) p.getX()).putShort((short) p.getY()).putShort((short) p.getHp()).putInt(p.getScore());
+
+        DungeonConfig config = engine.getConfig();
+        if (config.levels() > 0xFFFF) throw new IllegalArgumentException("Too many levels to save: " + config.levels());
+        buf.putShort((short) config.levels()).putInt(config.stepBudget());
+        buf.putDouble(config.goldDensity()).putDouble(config.trapDensity())
+                .putDouble(config.meleeDensity()).putDouble(config.potionDensity());
+
+        buf.putShort((short) width).putShort((short) height);
+        int pending = -1;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int t = grid.getType(x, y).ordinal();
+                if (pending < 0) {
+                    pending = t;
+                } else {
+                    buf.put((byte) (pending << 4 | t));
+                    pending = -1;
+                }
+            }
+        }
+        if (pending >= 0) buf.put((byte) (pending << 4));
+
+        buf.putShort((short) tail.size());
+        for (byte[] line : tail) {
+            buf.putShort((short) line.length).put(line);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        return buf.flip();
+    }
+
+    public static GameEngine decode(ByteBuffer buf) throws IOException {
+        try {
+            int end = buf.limit() - 4;
+            CRC32 crc = new CRC32();
+            crc.update(buf.duplicate().limit(end));
+            if ((int) crc.getValue() != buf.getInt(end)) throw new IOException("Save file is corrupt (bad checksum)");
+
+            for (byte b : MAGIC) {
+                if (buf.get() != b) throw new IOException("Not a MiniDungeon save file");
+            }
+            int version = buf.get();
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported save version " + version);
+            int flags = buf.get();
+            Grid.Backend backend = BACKENDS[buf.get()];
+
+            long seed = buf.getLong();
+            long combatDraws = buf.getLong();
+            int difficulty = buf.get() & 0xFF;
+            int level = buf.get() & 0xFF;
+            int steps = buf.getInt();
+            boolean won = buf.get() != 0;
+            int damage = buf.get() & 0xFF;
+
+            Player player = new Player(buf.getShort() & 0xFFFF, buf.getShort() & 0xFFFF,
+                    buf.getShort() & 0xFFFF, buf.getInt());
+
+            int levels = 0;
+            int stepBudget = 0;
+            double gold = 0, trap = 0, melee = 0, potion = 0;
+            if (version >= 2) {
+                levels = buf.getShort() & 0xFFFF;
+                stepBudget = buf.getInt();
+                gold = buf.getDouble();
+                trap = buf.getDouble();
+                melee = buf.getDouble();
+                potion = buf.getDouble();
+            }
+
+            int width = buf.getShort() & 0xFFFF;
+            int height = buf.getShort() & 0xFFFF;
+            DungeonConfig config = version >= 2
+                    ? new DungeonConfig(width, height, levels, gold, trap, melee, potion, stepBudget,
+                            (flags & FLAG_SOLVABLE) != 0)
+                    : DungeonConfig.ofSize(width, height);
+            Grid grid = backend.create(width, height);
+            int current = 0;
+            for (int i = 0; i < width * height; i++) {
+                int t;
+                if ((i & 1) == 0) {
+                    current = buf.get() & 0xFF;
+                    t = current >>> 4;
+                } else {
+                    t = current & 0x0F;
+                }
+                grid.setType(i % width, i / width, TYPES[t]);
+            }
+
+            List<String> log = new ArrayList<>();
+            if ((flags & FLAG_LOG) != 0) {
+                int count = buf.getShort() & 0xFFFF;
+                for (int i = 0; i < count; i++) {
+                    byte[] line = new byte[buf.getShort() & 0xFFFF];
+                    buf.get(line);
+                    log.add(new String(line, StandardCharsets.UTF_8));
+                }
+            }
+
+            return new GameEngine(config, grid, player, difficulty, level, steps, won,
+                    damage == NO_DAMAGE ? null : TYPES[damage], seed, combatDraws, log);
+        } catch (RuntimeException e) {
+            // Truncated buffers, out-of-range ordinals and bad settings surface as runtime exceptions
+            throw new IOException("Save file is corrupt: " + e, e);
+        }
+    }
+
+    // Everything a legacy save can hold; anything else is refused before it is built. Object is
+    // only ever seen as an array's element type, for the Object[] an ArrayList reads into
+    private static final String LEGACY_CLASSES = "dungeon.**;java.util.*;java.time.*;java.lang.Object;"
+            + "java.lang.String;java.lang.Enum;java.lang.Number;java.lang.Integer;java.lang.Long;java.lang.Boolean;!*";
+    private static final int LEGACY_MAX_DEPTH = 16;
+
+    /**
+     * The filter for any Java-serialized stream of {@code length} bytes the game
+     * wrote before its own formats: legacy saves here, and the old scores file.
+     */
+    static ObjectInputFilter legacyFilter(long length) {
+        // Every array element and object reference takes at least a byte of the stream
+        return ObjectInputFilter.Config.createFilter("maxdepth=" + LEGACY_MAX_DEPTH + ";maxrefs=" + length
+                + ";maxarray=" + length + ";maxbytes=" + length + ";" + LEGACY_CLASSES);
+    }
+
+    // A field stored in one unsigned byte; refused rather than wrapped into a valid-looking save
+    private static byte u8(int value, String field) {
+        if (value < 0 || value > 0xFF) throw new IllegalArgumentException(field + " does not fit in a save: " + value);
+        return (byte) value;
+    }
+
+    // Java serialization streams start with 0xACED
+    private static boolean isLegacy(ByteBuffer data) {
+        return data.remaining() >= 2 && (data.get(0) & 0xFF) == 0xAC && (data.get(1) & 0xFF) == 0xED;
+    }
+
+    private static GameEngine readLegacy(ByteBuffer data) throws IOException {
+        int length = data.remaining();
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new ByteArrayInputStream(data.array(), data.position(), length))) {
+            ois.setObjectInputFilter(legacyFilter(length));
+            return (GameEngine) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unreadable legacy save: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package dungeon.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Console output for the text UI. Lines and map frames are collected in one
+ * reusable char buffer. {@link #flush} hands them to a buffered stream in a
+ * single write, and every frame flushes. Redrawing the classic map is
+ * therefore one write instead of 288 {@code print} calls.
+ *
+ * <p>Plain mode prints each frame in full, with the lines logged since the
+ * last frame above it, as the text UI always has. ANSI mode draws the map once
+ * at the top of the screen. After that it only moves the cursor to squares
+ * whose symbol changed and rewrites those, and shows the logged lines in the
+ * area below the map. On a large map a move then costs a few dozen bytes
+ * rather than the whole map.
+ *
+ * <p>Not thread-safe; the engine that owns it is single-threaded.
+ */
+public final class TextRenderer {
+    private static final String CLEAR_SCREEN = "\033[H\033[2J";
+    private static final String CLEAR_BELOW = "\033[J";
+
+    private final Writer out;
+    private final boolean ansi;
+
+    // Output waiting for the next flush
+    private char[] buf = new char[1024];
+    private int length;
+    // Lines logged since the last frame; ANSI mode places them below the map
+    private char[] lines = new char[256];
+    private int linesLength;
+
+    // Symbols on screen in ANSI mode, row by row; null until the first frame
+    private char[] shown;
+    private int shownWidth;
+    private int shownHeight;
+
+    public TextRenderer(OutputStream out, boolean ansi) {
+        this.out = new OutputStreamWriter(new BufferedOutputStream(out, 1 << 16), StandardCharsets.UTF_8);
+        this.ansi = ansi;
+    }
+
+    public boolean isAnsi() { return ansi; }
+
+    /** Queues a line of text; it is written with the next frame or flush. */
+    public void line(String text) {
+        if (ansi) {
+            lines = ensure(lines, linesLength + text.length() + 1);
+            text.getChars(0, text.length(), lines, linesLength);
+            linesLength += text.length();
+            lines[linesLength++] = '\n';
+        } else {
+            append(text).append('\n');
+        }
+    }
+
+    /** Queues text with no line break, such as a prompt. */
+    public void print(String text) {
+        takeLines();
+        append(text);
+    }
+
+    /** Draws the map with the player on it and flushes. */
+    public void render(Grid map, int playerX, int playerY) {
+        int width = map.getWidth();
+        int height = map.getHeight();
+        if (!ansi) {
+            takeLines();
+            for (int y = 0; y < height; y++) {
+                ensureCapacity(2 * width + 1);
+                for (int x = 0; x < width; x++) {
+                    buf[length++] = x == playerX && y == playerY ? 'P' : symbol(map.getType(x, y));
+                    buf[length++] = ' ';
+                }
+                buf[length++] = '\n';
+            }
+            flush();
+            return;
+        }
+
+        boolean full = shown == null || shownWidth != width || shownHeight != height;
+        if (full) {
+            shown = new char[width * height];
+            shownWidth = width;
+            shownHeight = height;
+            append(CLEAR_SCREEN);
+        }
+        // Where the terminal cursor is after the last write, as a square index; -1 if unknown
+        int cursor = full ? 0 : -1;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                char c = x == playerX && y == playerY ? 'P' : symbol(map.getType(x, y));
+                if (!full && shown[i] == c) continue;
+                shown[i] = c;
+                if (cursor != i) moveCursor(y, x);
+                ensureCapacity(2);
+                buf[length++] = c;
+                buf[length++] = ' ';
+                // Writing past the last column wraps, so the next row needs an explicit move
+                cursor = x == width - 1 ? -1 : i + 1;
+            }
+            if (full) {
+                append("\r\n");
+                cursor = (y + 1) * width;
+            }
+        }
+        moveCursor(height, 0);
+        append(CLEAR_BELOW);
+        takeLines();
+        flush();
+    }
+
+    /** Writes everything queued so far. */
+    public void flush() {
+        takeLines();
+        try {
+            out.write(buf, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        length = 0;
+    }
+
+    /** Forgets what is on screen, so the next ANSI frame is drawn in full. */
+    public void invalidate() {
+        shown = null;
+    }
+
+    // Map symbol of a square type, as the text UI shows it
+    public static char symbol(Cell.Type type) {
+        return switch (type) {
+            case WALL -> '#';
+            case ENTRY -> 'E';
+            case LADDER -> 'L';
+            case TRAP -> 'T';
+            case GOLD -> 'G';
+            case MELEE_MUTANT -> 'M';
+            case RANGED_MUTANT -> 'R';
+            case HEALTH_POTION -> 'H';
+            default -> '.';
+        };
+    }
+
+    // Moves queued lines into the output
+    private void takeLines() {
+        if (linesLength == 0) return;
+        ensureCapacity(linesLength);
+        System.arraycopy(lines, 0, buf, length, linesLength);
+        length += linesLength;
+        linesLength = 0;
+    }
+
+    // ESC [ row ; col H, 1-based; each square is two columns wide
+    private void moveCursor(int y, int x) {
+        ensureCapacity(24);
+        buf[length++] = '\033';
+        buf[length++] = '[';
+        appendInt(y + 1);
+        buf[length++] = ';';
+        appendInt(2 * x + 1);
+        buf[length++] = 'H';
+    }
+
+    private void appendInt(int n) {
+        int start = length;
+        do {
+            buf[length++] = (char) ('0' + n % 10);
+            n /= 10;
+        } while (n > 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char t = buf[i];
+            buf[i] = buf[j];
+            buf[j] = t;
+        }
+    }
+
+    private TextRenderer append(String s) {
+        ensureCapacity(s.length());
+        s.getChars(0, s.length(), buf, length);
+        length += s.length();
+        return this;
+    }
+
+    private void append(char c) {
+        ensureCapacity(1);
+        buf[length++] = c;
+    }
+
+    private void ensureCapacity(int extra) {
+        buf = ensure(buf, length + extra);
+    }
+
+    private static char[] ensure(char[] a, int needed) {
+        return needed <= a.length ? a : Arrays.copyOf(a, Math.max(needed, a.length * 2));
+    }
+}
@@ -0,0 +1,80 @@
+package dungeon.engine;
+
+/**
+ * For every square, how many ranged mutants can shoot at it: those exactly
+ * {@link #REACH} squares away on the same row or column. The engine keeps
+ * one up to date as mutants are placed and defeated, touching four squares
+ * per change, so "is this square under fire, and by how many?" is one array
+ * read for the engine, the solver, bots and the GUI. Walls do not block
+ * shots, matching the engine's rules.
+ */
+public final class ThreatMap {
+    /** The only distance a ranged mutant shoots at. */
+    public static final int REACH = 2;
+
+    private final int width;
+    private final int height;
+    private final byte[] counts;
+    private int changes;
+
+    public ThreatMap(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.counts = new byte[width * height];
+    }
+
+    /** A threat map of the ranged mutants currently on the grid. */
+    public static ThreatMap of(Grid grid) {
+        ThreatMap threats = new ThreatMap(grid.getWidth(), grid.getHeight());
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.getType(x, y) == Cell.Type.RANGED_MUTANT) threats.add(x, y);
+            }
+        }
+        return threats;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /** The number of ranged mutants in reach of (x, y); 0 off the map. */
+    public int count(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return 0;
+        return counts[y * width + x];
+    }
+
+    public boolean isThreatened(int x, int y) {
+        return count(x, y) > 0;
+    }
+
+    /** Goes up every time a mutant is placed or removed, so a copy can tell it is out of date. */
+    public int getChanges() { return changes; }
+
+    /** A copy of every count, row by row (index y * width + x). */
+    public byte[] toArray() {
+        return counts.clone();
+    }
+
+    // A ranged mutant was placed at (mx, my)
+    void add(int mx, int my) {
+        adjust(mx, my, 1);
+    }
+
+    // The ranged mutant at (mx, my) is gone
+    void remove(int mx, int my) {
+        adjust(mx, my, -1);
+    }
+
+    private void adjust(int mx, int my, int delta) {
+        changes++;
+        bump(mx - REACH, my, delta);
+        bump(mx + REACH, my, delta);
+        bump(mx, my - REACH, delta);
+        bump(mx, my + REACH, delta);
+    }
+
+    private void bump(int x, int y, int delta) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return;
+        counts[y * width + x] += (byte) delta;
+    }
+}
@@ -0,0 +1,38 @@
+package dungeon.engine.cells;
+
+import dungeon.engine.Cell;
+
+/**
+ * Creates cells by type and holds one shared, position-less instance of each
+ * type for the packed map backend.
+ */
+public final class Cells {
+    private static final Cell[] FLYWEIGHTS = new Cell[Cell.Type.values().length];
+
+    static {
+        for (Cell.Type type : Cell.Type.values()) {
+            FLYWEIGHTS[type.ordinal()] = create(type, -1, -1);
+        }
+    }
+
+    private Cells() {}
+
+    public static Cell create(Cell.Type type, int x, int y) {
+        return switch (type) {
+            case WALL -> new WallCell(x, y);
+            case ENTRY -> new EntryCell(x, y);
+            case LADDER -> new LadderCell(x, y);
+            case TRAP -> new TrapCell(x, y);
+            case GOLD -> new GoldCell(x, y);
+            case MELEE_MUTANT -> new MeleeMutantCell(x, y);
+            case RANGED_MUTANT -> new RangedMutantCell(x, y);
+            case HEALTH_POTION -> new HealthPotionCell(x, y);
+            case EMPTY -> new EmptyCell(x, y);
+        };
+    }
+
+    // Shared instance for the given type; its coordinates are always (-1, -1)
+    public static Cell flyweight(Cell.Type type) {
+        return FLYWEIGHTS[type.ordinal()];
+    }
+}
@@ -4,12 +4,10 @@ import dungeon.engine.Cell;
 import dungeon.engine.Player;
 
 import java.io.Serializable;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class RangedMutantCell extends Cell implements Serializable {
     private static final long serialVersionUID = 1L;
-    private static final Random RAND = new Random();
-
     public RangedMutantCell(int x, int y) {
         super(Cell.Type.RANGED_MUTANT, x, y);
     }
@@ -19,7 +17,8 @@ public class RangedMutantCell extends Cell implements Serializable {
         player.addScore(2);
     }
 
-    public boolean attemptAttack() {
-        return RAND.nextDouble() < 0.5;
+    // Rolls come from the owning engine so engines never share random state
+    public boolean attemptAttack(RandomGenerator random) {
+        return random.nextDouble() < 0.5;
     }
 }
\ No newline at end of file
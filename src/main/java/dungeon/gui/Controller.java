@@ -1,25 +1,26 @@
 package dungeon.gui;
 
 import dungeon.engine.Cell;
-import dungeon.engine.GameEngine;
+import dungeon.engine.LevelPool;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextAlignment;
-import javafx.scene.paint.Color;
 
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,9 +35,31 @@ public class Controller {
     @FXML private StackPane centerStack;
     @FXML private VBox welcomeBox;
     @FXML private ImageView welcomeImage;
+    @FXML private CheckBox dangerToggle;
 
-    private GameEngine engine;
+    private static final Cell.Type[] TYPES = Cell.Type.values();
     private static final String SAVE_FILE = "minidungeon.sav";
+    private static final int TILE_SIZE = 40;
+
+    // -Ddungeon.atlas=true packs all sprites into one texture;
+    // -Ddungeon.profile=true prints sprite load time, level pool hits and per-move render cost
+    private static final boolean USE_ATLAS = Boolean.getBoolean("dungeon.atlas");
+    private static final boolean PROFILE = Boolean.getBoolean("dungeon.profile");
+
+    private SpriteCache sprites;
+    private LevelPool levels;
+    // Runs the engine; everything this class draws comes from its frames
+    private EngineActor actor;
+    // The last frame drawn, or null before the first game
+    private EngineActor.Frame shown;
+
+    // Nodes built by renderGameGrid and reused between moves
+    private StackPane[][] cellPanes;
+    private ImageView[][] tileViews;
+    private Region[][] threatViews;
+    private ImageView playerView;
+    // Ranged threat per square from the latest frame that carried it, row by row
+    private byte[] threats;
 
     @FXML
     public void initialize() {
@@ -51,6 +74,17 @@ public class Controller {
         // prompt for empty scoreboard
         scoreBoard.setPromptText("No scores yet");
 
+        // decode all cell textures once
+        sprites = new SpriteCache(TILE_SIZE, USE_ATLAS);
+        if (PROFILE) {
+            System.out.printf("Sprites loaded in %.2f ms (atlas: %b)%n",
+                    sprites.getLoadNanos() / 1e6, sprites.isAtlas());
+        }
+
+        // start building levels while the player is still on the welcome screen
+        levels = LevelPool.shared();
+        actor = new EngineActor(levels, Platform::runLater, this::show);
+
         // load welcome image
         try (InputStream s = getClass().getClassLoader().getResourceAsStream("player.png")) {
             if (s != null) welcomeImage.setImage(new Image(s));
@@ -63,101 +97,134 @@ public class Controller {
     private void startGame() {
         welcomeBox.setVisible(false);
         int diff = difficultyCombo.getValue() != null ? difficultyCombo.getValue() : 3;
-        engine = new GameEngine(diff);
-
+        actor.newGame(diff);
+        if (PROFILE) System.out.println(levels);
         gridPane.setVisible(true);
-        renderGameGrid();
-        updateGameInfo();
-        updateScoreBoard();
-        updateStatusLog();
     }
 
-    private void renderGameGrid() {
+    // Called on the FX thread with each frame the actor publishes
+    private void show(EngineActor.Frame frame) {
+        long startNanos = PROFILE ? System.nanoTime() : 0;
+        long startBytes = PROFILE ? allocatedBytes() : 0;
+        if (frame.width() > 0) {
+            if (frame.rebuild()) {
+                welcomeBox.setVisible(false);
+                gridPane.setVisible(true);
+                renderGameGrid(frame);
+            } else {
+                renderChanges(frame);
+            }
+            if (frame.threats() != null) {
+                threats = frame.threats();
+                renderThreats();
+            }
+            shown = frame;
+            updateGameInfo();
+        }
+        updateStatusLog(frame);
+        if (frame.topScores() != null) updateScoreBoard(frame);
+        if (PROFILE) {
+            System.out.printf("Frame: %d us, %d bytes allocated%n",
+                    (System.nanoTime() - startNanos) / 1000, allocatedBytes() - startBytes);
+        }
+        if (frame.ended()) showGameOverAlert();
+    }
+
+    // Full rebuild; only needed for a new game, a load or a new level
+    private void renderGameGrid(EngineActor.Frame frame) {
         gridPane.getChildren().clear();
-        int size = engine.getSize();
+        int width = frame.width();
+        int height = frame.height();
         gridPane.setPadding(new Insets(5));
         gridPane.setHgap(2);
         gridPane.setVgap(2);
 
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                Cell cell = engine.getMap()[y][x];
+        cellPanes = new StackPane[height][width];
+        tileViews = new ImageView[height][width];
+        threatViews = new Region[height][width];
+        playerView = new ImageView();
+        sprites.applyPlayer(playerView);
+        playerView.setFitWidth(30);
+        playerView.setFitHeight(30);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
                 StackPane cellPane = new StackPane();
                 cellPane.getStyleClass().add("grid-cell");
-                cellPane.setMinSize(40, 40);
-                cellPane.setMaxSize(40, 40);
-
-                ImageView iv = new ImageView(getImageForCell(cell));
-                iv.setFitWidth(40);
-                iv.setFitHeight(40);
-                cellPane.getChildren().add(iv);
-
-                if (engine.getPlayer().getX()==x && engine.getPlayer().getY()==y) {
-                    ImageView p = new ImageView(getPlayerImage());
-                    p.setFitWidth(30);
-                    p.setFitHeight(30);
-                    cellPane.getChildren().add(p);
-                }
-
+                cellPane.setMinSize(TILE_SIZE, TILE_SIZE);
+                cellPane.setMaxSize(TILE_SIZE, TILE_SIZE);
+
+                ImageView iv = new ImageView();
+                sprites.apply(iv, TYPES[frame.types()[y * width + x]]);
+                iv.setFitWidth(TILE_SIZE);
+                iv.setFitHeight(TILE_SIZE);
+                Region threat = new Region();
+                threat.getStyleClass().add("threat");
+                threat.setMouseTransparent(true);
+                threat.setVisible(false);
+                cellPane.getChildren().addAll(iv, threat);
+
+                cellPanes[y][x] = cellPane;
+                tileViews[y][x] = iv;
+                threatViews[y][x] = threat;
                 gridPane.add(cellPane, x, y);
             }
         }
+        cellPanes[frame.playerY()][frame.playerX()].getChildren().add(playerView);
     }
 
-    private Image getImageForCell(Cell cell) {
-        String file = switch (cell.getType()) {
-            case WALL          -> "wall.png";
-            case ENTRY         -> "entry.png";
-            case LADDER        -> "ladder.png";
-            case TRAP          -> "trap.png";
-            case GOLD          -> "gold.png";
-            case MELEE_MUTANT  -> "melee_mutant.png";
-            case RANGED_MUTANT -> "ranged_mutant.png";
-            case HEALTH_POTION -> "healthPotion.png";
-            default             -> "empty.png";
-        };
-        return loadImage(file, cell.getType().name().charAt(0));
-    }
-
-    private Image getPlayerImage() {
-        return loadImage("player.png", 'P');
+    // Redraws only the squares that changed since the last frame
+    private void renderChanges(EngineActor.Frame frame) {
+        if (cellPanes == null) return;
+        int width = frame.width();
+        int[] changed = frame.changed();
+        for (int i = 0; i < changed.length; i++) {
+            sprites.apply(tileViews[changed[i] / width][changed[i] % width], TYPES[frame.types()[i]]);
+        }
+        StackPane playerPane = cellPanes[frame.playerY()][frame.playerX()];
+        if (playerView.getParent() != playerPane) {
+            ((StackPane) playerView.getParent()).getChildren().remove(playerView);
+            playerPane.getChildren().add(playerView);
+        }
     }
 
-    private Image loadImage(String fname, char fallback) {
-        try (InputStream s = getClass().getClassLoader().getResourceAsStream(fname)) {
-            if (s != null) return new Image(s);
-        } catch (Exception e) {
-            System.err.println("Error loading "+fname+": "+e.getMessage());
+    // Tints every square a ranged mutant can shoot at, darker the more mutants can
+    @FXML
+    private void renderThreats() {
+        if (threatViews == null || threats == null) return;
+        boolean on = dangerToggle.isSelected();
+        int width = threatViews[0].length;
+        for (int i = 0; i < threats.length; i++) {
+            Region view = threatViews[i / width][i % width];
+            view.setVisible(on && threats[i] > 0);
+            view.setOpacity(Math.min(0.8, 0.3 * threats[i]));
         }
-        Text t = new Text(String.valueOf(fallback));
-        t.setStyle("-fx-font-weight:bold; -fx-font-size:20;");
-        t.setTextAlignment(TextAlignment.CENTER);
-        t.setFill(Color.BLACK);
-        return t.snapshot(null, null);
     }
 
     private void updateGameInfo() {
-        scoreLabel.setText("Score: "+engine.getPlayer().getScore());
-        hpLabel.setText("HP: "+engine.getPlayer().getHp()+"/10");
-        stepsLabel.setText("Steps: "+engine.getStepsRemaining());
+        scoreLabel.setText("Score: "+shown.score());
+        hpLabel.setText("HP: "+shown.hp()+"/10");
+        stepsLabel.setText("Steps: "+shown.steps());
 
-        hpLabel.setStyle(engine.getPlayer().getHp()<=3
+        hpLabel.setStyle(shown.hp()<=3
                 ? "-fx-text-fill:#FF5252; -fx-font-weight:bold;"
                 : "-fx-text-fill:white;");
-        stepsLabel.setStyle(engine.getStepsRemaining()<=20
+        stepsLabel.setStyle(shown.steps()<=20
                 ? "-fx-text-fill:#29B6F6; -fx-font-weight:bold;"
                 : "-fx-text-fill:white;");
     }
 
-    private void updateStatusLog() {
-        statusLog.clear();
-        for (String e : engine.getEventLog()) statusLog.appendText("• "+e+"\n");
+    // The actor sends only the lines logged since the last frame, and says
+    // when to start over
+    private void updateStatusLog(EngineActor.Frame frame) {
+        if (frame.clearLog()) statusLog.clear();
+        if (!frame.log().isEmpty()) statusLog.appendText(frame.log());
         statusLog.setScrollTop(Double.MAX_VALUE);
     }
 
-    private void updateScoreBoard() {
+    private void updateScoreBoard(EngineActor.Frame frame) {
         scoreBoard.clear();
-        List<String> top = engine.getTopScores();
+        List<String> top = frame.topScores();
         if (top.isEmpty()) {
             scoreBoard.setPromptText("No scores yet");
         } else {
@@ -170,17 +237,17 @@ public class Controller {
     @FXML private void handleLeft()  { move(-1,0); }
     @FXML private void handleRight() { move(1,0); }
 
+    // Queued for the actor; the screen catches up when its next frame arrives
     private void move(int dx, int dy) {
-        if (engine.isGameOver()||engine.isGameWon()) { showGameOverAlert(); return; }
-        if (engine.movePlayer(dx,dy)) {
-            renderGameGrid();
-            updateGameInfo();
-            updateStatusLog();
-            if (engine.isGameOver()||engine.isGameWon()) {
-                updateScoreBoard();
-                showGameOverAlert();
-            }
-        }
+        if (shown == null) return;
+        if (shown.gameOver()||shown.gameWon()) { showGameOverAlert(); return; }
+        actor.move(dx, dy);
+    }
+
+    // Bytes allocated so far by the FX thread, as reported by HotSpot
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getCurrentThreadAllocatedBytes();
     }
 
     private void showGameOverAlert() {
@@ -188,9 +255,9 @@ public class Controller {
         a.setTitle("Game Over");
 
         String header, msg;
-        if (engine.isGameWon()) {
+        if (shown.gameWon()) {
             header="You Escaped the Dungeon!"; msg="Congratulations!";
-        } else if (engine.getPlayer().getHp()<=0) {
+        } else if (shown.hp()<=0) {
             header="You Have Died!"; msg="Your HP reached 0.";
         } else {
             header="Out of Time!"; msg="You ran out of steps.";
@@ -198,7 +265,7 @@ public class Controller {
         a.setHeaderText(header);
 
         Label content = new Label(msg);
-        Label score = new Label("Final score: "+engine.getPlayer().getScore());
+        Label score = new Label("Final score: "+shown.score());
         score.getStyleClass().add("final-score");
         VBox box = new VBox(10, content, score);
         box.setAlignment(Pos.CENTER);
@@ -217,28 +284,15 @@ public class Controller {
         }
     }
 
+    // Save and load touch the disk on the actor's thread, never this one
     @FXML
     private void handleSave() {
-        engine.saveGame(SAVE_FILE);
-        engine.logEvent("Game saved successfully");
-        updateStatusLog();
+        actor.save(SAVE_FILE);
     }
 
     @FXML
     private void handleLoad() {
-        GameEngine loaded = GameEngine.loadGame(SAVE_FILE);
-        if (loaded!=null) {
-            engine = loaded;
-            engine.logEvent("Game loaded successfully");
-            welcomeBox.setVisible(false);
-            gridPane.setVisible(true);
-            renderGameGrid();
-            updateGameInfo();
-            updateScoreBoard();
-            updateStatusLog();
-        } else {
-            statusLog.appendText("Failed to load saved game\n");
-        }
+        actor.load(SAVE_FILE);
     }
 
     @FXML
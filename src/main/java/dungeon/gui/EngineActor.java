@@ -0,0 +1,236 @@
+package dungeon.gui;
+
+import dungeon.engine.CellChangeListener;
+import dungeon.engine.EventLog;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Grid;
+import dungeon.engine.LevelPool;
+import dungeon.engine.Player;
+import dungeon.engine.ThreatMap;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Owns the game engine on a thread of its own, so moves, level generation
+ * and save/load file I/O never run on the FX thread. Commands queue up on
+ * that thread. After each one, the actor sends a {@link Frame} describing
+ * what changed to the view through the UI executor ({@code Platform::runLater}).
+ *
+ * <p>Only one frame is in flight at a time. Commands that arrive while the
+ * view is still drawing the last frame keep adding to the next one. A burst
+ * of key presses therefore costs one redraw, not one per key.
+ */
+final class EngineActor implements CellChangeListener {
+
+    /**
+     * What the view needs to draw one update, copied off the engine so it can
+     * be read on the FX thread. On a rebuild {@code types} holds every square
+     * row by row and {@code changed} is null; otherwise {@code types[i]} is the
+     * new type ordinal of square {@code changed[i]} (y * width + x).
+     * {@code threats} holds every square's ranged threat count in the same
+     * order, and is null when it has not changed since the last frame.
+     */
+    record Frame(boolean rebuild, int width, int height, int[] changed, byte[] types, byte[] threats,
+                 int playerX, int playerY, int hp, int score, int steps,
+                 boolean gameOver, boolean gameWon, boolean ended,
+                 boolean clearLog, String log, List<String> topScores) {}
+
+    private final ExecutorService thread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "engine");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Executor ui;
+    private final Consumer<Frame> view;
+    private final LevelPool levels;
+
+    // Everything below is only touched on the actor thread
+    private GameEngine engine;
+    private boolean frameInFlight;
+    private boolean changed;
+
+    // Squares reported by the engine since the last frame, as y * width + x
+    private int[] dirtyCells = new int[0];
+    private boolean[] dirtyMarked = new boolean[0];
+    private int dirtyCount;
+    private boolean levelDirty;
+    private boolean scoresDirty;
+    private boolean wasOver;
+    // The threat map the view last got a copy of, and its change count then
+    private ThreatMap shownThreats;
+    private int shownThreatChanges;
+
+    // Which engine log the view mirrors and how far it has got
+    private EventLog shownLog;
+    private long shownLogSequence;
+    private int shownLogLines;
+    private final StringBuilder notices = new StringBuilder();
+
+    EngineActor(LevelPool levels, Executor ui, Consumer<Frame> view) {
+        this.levels = levels;
+        this.ui = ui;
+        this.view = view;
+    }
+
+    void newGame(int difficulty) {
+        submit(() -> replace(new GameEngine(difficulty, levels)));
+    }
+
+    void move(int dx, int dy) {
+        submit(() -> {
+            if (engine == null || engine.isGameOver() || engine.isGameWon()) return;
+            engine.movePlayer(dx, dy);
+        });
+    }
+
+    void save(String file) {
+        submit(() -> {
+            if (engine == null) return;
+            engine.saveGame(file);
+            engine.logEvent("Game saved successfully");
+        });
+    }
+
+    void load(String file) {
+        submit(() -> {
+            GameEngine loaded = GameEngine.loadGame(file);
+            if (loaded != null) {
+                replace(loaded);
+                engine.logEvent("Game loaded successfully");
+            } else {
+                notices.append("Failed to load saved game\n");
+            }
+        });
+    }
+
+    private void submit(Runnable command) {
+        thread.execute(() -> {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                notices.append("Error: ").append(e.getMessage()).append('\n');
+            }
+            changed = true;
+            if (!frameInFlight) publish();
+        });
+    }
+
+    private void replace(GameEngine next) {
+        if (engine != null) engine.setChangeListener(null);
+        engine = next;
+        engine.setChangeListener(this);
+        int squares = engine.getWidth() * engine.getHeight();
+        if (dirtyMarked.length != squares) {
+            dirtyCells = new int[squares];
+            dirtyMarked = new boolean[squares];
+            dirtyCount = 0;
+        }
+        levelDirty = true;
+        scoresDirty = true;
+        wasOver = false;
+    }
+
+    private void publish() {
+        if (engine == null && notices.isEmpty()) return;
+        Frame frame = engine != null ? snapshot() : new Frame(false, 0, 0, new int[0], new byte[0], null,
+                0, 0, 0, 0, 0, false, false, false, false, notices.toString(), null);
+        notices.setLength(0);
+        changed = false;
+        frameInFlight = true;
+        ui.execute(() -> {
+            try {
+                view.accept(frame);
+            } finally {
+                thread.execute(this::frameShown);
+            }
+        });
+    }
+
+    private void frameShown() {
+        frameInFlight = false;
+        if (changed) publish();
+    }
+
+    private Frame snapshot() {
+        Grid grid = engine.getGrid();
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        boolean rebuild = levelDirty;
+        int[] cells = null;
+        byte[] types;
+        if (rebuild) {
+            types = new byte[width * height];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    types[y * width + x] = (byte) grid.getType(x, y).ordinal();
+                }
+            }
+        } else {
+            cells = new int[dirtyCount];
+            types = new byte[dirtyCount];
+            for (int i = 0; i < dirtyCount; i++) {
+                cells[i] = dirtyCells[i];
+                types[i] = (byte) grid.getType(cells[i] % width, cells[i] / width).ordinal();
+            }
+        }
+        for (int i = 0; i < dirtyCount; i++) dirtyMarked[dirtyCells[i]] = false;
+        dirtyCount = 0;
+        levelDirty = false;
+
+        ThreatMap threatMap = engine.getThreatMap();
+        byte[] threats = null;
+        if (rebuild || threatMap != shownThreats || threatMap.getChanges() != shownThreatChanges) {
+            threats = threatMap.toArray();
+            shownThreats = threatMap;
+            shownThreatChanges = threatMap.getChanges();
+        }
+
+        boolean over = engine.isGameOver() || engine.isGameWon();
+        boolean ended = over && !wasOver;
+        wasOver = over;
+        List<String> scores = null;
+        if (scoresDirty || ended) scores = engine.getTopScores();
+        scoresDirty = false;
+
+        // Only the events logged since the last frame; the view's text is
+        // rebuilt for a new engine, or once it holds twice the buffer's
+        // capacity, so it never grows without bound
+        EventLog log = engine.getEvents();
+        boolean clearLog = log != shownLog || shownLogLines > 2 * log.getCapacity();
+        if (clearLog) {
+            shownLog = log;
+            shownLogSequence = log.getOldestSequence();
+            shownLogLines = 0;
+        }
+        StringBuilder sb = new StringBuilder();
+        log.forEachSince(shownLogSequence, (seq, type, amount, x, y, message) -> {
+            sb.append("• ").append(type.format(amount, message)).append('\n');
+            shownLogLines++;
+        });
+        shownLogSequence = log.getSequence();
+        sb.append(notices);
+
+        Player p = engine.getPlayer();
+        return new Frame(rebuild, width, height, cells, types, threats, p.getX(), p.getY(), p.getHp(), p.getScore(),
+                engine.getStepsRemaining(), engine.isGameOver(), engine.isGameWon(), ended,
+                clearLog, sb.toString(), scores);
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        int index = y * engine.getWidth() + x;
+        if (index < dirtyMarked.length && !dirtyMarked[index]) {
+            dirtyMarked[index] = true;
+            dirtyCells[dirtyCount++] = index;
+        }
+    }
+
+    @Override
+    public void levelChanged() {
+        levelDirty = true;
+    }
+}
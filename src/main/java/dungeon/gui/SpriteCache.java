@@ -0,0 +1,120 @@
+package dungeon.gui;
+
+import dungeon.engine.Cell;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Decodes every cell texture once and hands out the same {@link Image} for the
+ * rest of the session. In atlas mode all sprites are packed side by side into
+ * a single image and each view shows its slice through a viewport, so the
+ * whole board shares one texture.
+ */
+public class SpriteCache {
+    private static final Cell.Type[] TYPES = Cell.Type.values();
+
+    private final Map<Cell.Type, Image> tiles = new EnumMap<>(Cell.Type.class);
+    private final Image player;
+    private final int tileSize;
+
+    // Set only in atlas mode: the packed image and one slice per type, player last
+    private final Image atlas;
+    private final Rectangle2D[] viewports;
+
+    private final long loadNanos;
+
+    public SpriteCache(int tileSize, boolean useAtlas) {
+        long start = System.nanoTime();
+        this.tileSize = tileSize;
+        for (Cell.Type type : TYPES) {
+            tiles.put(type, load(fileFor(type), type.name().charAt(0)));
+        }
+        player = load("player.png", 'P');
+
+        if (useAtlas) {
+            WritableImage packed = new WritableImage(tileSize * (TYPES.length + 1), tileSize);
+            viewports = new Rectangle2D[TYPES.length + 1];
+            for (int i = 0; i <= TYPES.length; i++) {
+                Image sprite = i < TYPES.length ? tiles.get(TYPES[i]) : player;
+                int w = (int) Math.min(tileSize, sprite.getWidth());
+                int h = (int) Math.min(tileSize, sprite.getHeight());
+                packed.getPixelWriter().setPixels(i * tileSize, 0, w, h, sprite.getPixelReader(), 0, 0);
+                viewports[i] = new Rectangle2D(i * tileSize, 0, tileSize, tileSize);
+            }
+            atlas = packed;
+        } else {
+            atlas = null;
+            viewports = null;
+        }
+        loadNanos = System.nanoTime() - start;
+    }
+
+    public Image get(Cell.Type type) {
+        return tiles.get(type);
+    }
+
+    public Image getPlayer() {
+        return player;
+    }
+
+    // Points the view at the sprite for the given type; no new images are created
+    public void apply(ImageView view, Cell.Type type) {
+        if (atlas != null) {
+            view.setImage(atlas);
+            view.setViewport(viewports[type.ordinal()]);
+        } else {
+            view.setImage(tiles.get(type));
+        }
+    }
+
+    public void applyPlayer(ImageView view) {
+        if (atlas != null) {
+            view.setImage(atlas);
+            view.setViewport(viewports[TYPES.length]);
+        } else {
+            view.setImage(player);
+        }
+    }
+
+    public boolean isAtlas() { return atlas != null; }
+
+    // Time spent decoding and packing in the constructor
+    public long getLoadNanos() { return loadNanos; }
+
+    private static String fileFor(Cell.Type type) {
+        return switch (type) {
+            case WALL          -> "wall.png";
+            case ENTRY         -> "entry.png";
+            case LADDER        -> "ladder.png";
+            case TRAP          -> "trap.png";
+            case GOLD          -> "gold.png";
+            case MELEE_MUTANT  -> "melee_mutant.png";
+            case RANGED_MUTANT -> "ranged_mutant.png";
+            case HEALTH_POTION -> "healthPotion.png";
+            default             -> "empty.png";
+        };
+    }
+
+    // Decodes at tile size so atlas slices line up; falls back to a letter
+    private Image load(String fname, char fallback) {
+        try (InputStream s = getClass().getClassLoader().getResourceAsStream(fname)) {
+            if (s != null) return new Image(s, tileSize, tileSize, false, true);
+        } catch (Exception e) {
+            System.err.println("Error loading "+fname+": "+e.getMessage());
+        }
+        Text t = new Text(String.valueOf(fallback));
+        t.setStyle("-fx-font-weight:bold; -fx-font-size:20;");
+        t.setTextAlignment(TextAlignment.CENTER);
+        t.setFill(Color.BLACK);
+        return t.snapshot(null, null);
+    }
+}
@@ -0,0 +1,203 @@
+package dungeon.server;
+
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.Leaderboard;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts many games in one JVM over a line-based TCP protocol. Each
+ * connection is one {@link Session} on its own virtual thread, so a blocked
+ * read costs no platform thread and thousands of idle players cost little
+ * more than their engines. Sessions share only the leaderboard.
+ *
+ * <p>The server greets with {@code READY}. Each command line gets one reply
+ * line, except {@code MAP}:
+ *
+ * <pre>
+ * NEW [difficulty] [seed]   STARTED hp=10 steps=100 score=0 level=1 x=1 y=10, then seed=... if the client chose it
+ *                           (a game on a seed the client chose is practice and never reaches the leaderboard)
+ * U | D | L | R             MOVED | BLOCKED | WON | LOST, then the same fields as STARTED without the seed;
+ *                           WON and LOST end with seed=... when the server drew it
+ * MAP                       one line of symbols per map row as in the text UI, then "."
+ * SCORES                    SCORES, then the leaderboard's scores, best first
+ * QUIT                      BYE, and the connection closes
+ * anything else             ERR and a reason
+ * </pre>
+ *
+ * Replies to commands that arrive together are flushed together, so a client
+ * may pipeline moves. A line longer than {@link #MAX_LINE} characters gets
+ * {@code ERR} and the connection closes, as does a connection that sends
+ * nothing for the idle timeout. The server listens on loopback unless given
+ * an address.
+ */
+public class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7777;
+    /** Longest command line accepted, not counting the line break. */
+    public static final int MAX_LINE = 64;
+    public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+    private final ServerSocket socket;
+    private final DungeonConfig config;
+    private final Leaderboard leaderboard;
+    private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private final Thread acceptor;
+    private volatile int idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+
+    /** Listens on {@code port}, or any free port if it is 0; call {@link #start} to accept players. */
+    public GameServer(int port, DungeonConfig config, Leaderboard leaderboard) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), config, leaderboard);
+    }
+
+    public GameServer(InetSocketAddress address, DungeonConfig config, Leaderboard leaderboard) throws IOException {
+        this.socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(address, 1024);
+        this.config = config;
+        this.leaderboard = leaderboard;
+        this.acceptor = Thread.ofPlatform().name("game-server-accept").daemon().unstarted(this::acceptLoop);
+    }
+
+    public GameServer start() {
+        acceptor.start();
+        return this;
+    }
+
+    /** Blocks until the server is closed. */
+    public void awaitClose() throws InterruptedException {
+        acceptor.join();
+    }
+
+    public int getPort() { return socket.getLocalPort(); }
+    public int getActiveSessions() { return open.size(); }
+    public long getConnections() { return connections.sum(); }
+    public long getCommands() { return commands.sum(); }
+    public Leaderboard getLeaderboard() { return leaderboard; }
+
+    /** How long a connection may send nothing before it is closed; applies to connections accepted after. */
+    public void setIdleTimeout(int millis) {
+        if (millis <= 0) throw new IllegalArgumentException("Idle timeout must be positive: " + millis);
+        idleTimeoutMillis = millis;
+    }
+
+    private void acceptLoop() {
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                client.setTcpNoDelay(true);
+                client.setSoTimeout(idleTimeoutMillis);
+                open.add(client);
+                connections.increment();
+                sessions.execute(() -> serve(client));
+            } catch (IOException e) {
+                if (!socket.isClosed()) System.out.println("Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        Session session = new Session(config, leaderboard);
+        StringBuilder reply = new StringBuilder(256);
+        StringBuilder line = new StringBuilder(MAX_LINE + 1);
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(),
+                     StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            out.write("READY\n");
+            out.flush();
+            boolean more = true;
+            while (more && readLine(in, line)) {
+                if (line.length() > MAX_LINE) {
+                    out.write("ERR line longer than " + MAX_LINE + " characters\n");
+                    out.flush();
+                    break;
+                }
+                commands.increment();
+                reply.setLength(0);
+                more = session.handle(line.toString(), reply);
+                out.append(reply);
+                // Only flush once the commands that arrived together have all been answered
+                if (!more || !in.ready()) out.flush();
+            }
+        } catch (SocketException | SocketTimeoutException e) {
+            // client went away or sat idle, or the server is closing
+        } catch (IOException e) {
+            System.out.println("Session failed: " + e.getMessage());
+        } finally {
+            open.remove(client);
+        }
+    }
+
+    // Reads one line into line, without its line break; false at end of input. Stops as soon as the
+    // line is longer than MAX_LINE, so a client cannot make the server buffer an endless line
+    private static boolean readLine(Reader in, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') return true;
+            if (c == '\r') continue;
+            line.append((char) c);
+            if (line.length() > MAX_LINE) return true;
+        }
+        return line.length() > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        for (Socket s : open) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // already gone
+            }
+        }
+        sessions.shutdown();
+    }
+
+    // Usage: GameServer [port] [scores log] [bind address, loopback if not given]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Leaderboard board = args.length > 1
+                ? Leaderboard.open(Path.of(args[1]), Leaderboard.DEFAULT_SIZE)
+                : new Leaderboard(Leaderboard.DEFAULT_SIZE);
+        InetSocketAddress address = args.length > 2
+                ? new InetSocketAddress(args[2], port)
+                : new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        GameServer server = new GameServer(address, DungeonConfig.CLASSIC, board).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // exiting anyway
+            }
+            board.close();
+        }, "game-server-close"));
+        System.out.println("=== MINI DUNGEON SERVER on " + address.getAddress().getHostAddress() + " port "
+                + server.getPort() + " ===");
+        server.awaitClose();
+    }
+}
@@ -0,0 +1,160 @@
+package dungeon.server;
+
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.Leaderboard;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives a {@link GameServer} with many concurrent players and reports
+ * round-trip latency percentiles. Every player is a virtual thread with its
+ * own connection. It sends one command, waits for the reply, then sends the
+ * next: random moves, and NEW whenever a game ends. With no host given, a
+ * server is started in this JVM on a free localhost port.
+ */
+public final class LoadGenerator {
+    private static final String[] MOVES = {"U", "D", "L", "R"};
+
+    private LoadGenerator() {}
+
+    /** What one run measured. Latencies are in nanoseconds, sorted ascending. */
+    public record Result(int sessions, long[] latencies, long elapsedNanos, int failedSessions) {
+        public long percentile(double p) {
+            if (latencies.length == 0) return 0;
+            int i = (int) Math.ceil(p / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(latencies.length - 1, i))];
+        }
+
+        public double commandsPerSecond() {
+            return latencies.length / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            int cores = Runtime.getRuntime().availableProcessors();
+            return String.format(
+                    "%d sessions on %d cores (%.0f per core), %d commands in %.2f s: %,.0f/s (%,.0f/s per core)%n"
+                            + "latency us: p50 %.1f | p90 %.1f | p99 %.1f | p99.9 %.1f | max %.1f%s",
+                    sessions, cores, (double) sessions / cores, latencies.length, elapsedNanos / 1e9,
+                    commandsPerSecond(), commandsPerSecond() / cores,
+                    percentile(50) / 1e3, percentile(90) / 1e3, percentile(99) / 1e3, percentile(99.9) / 1e3,
+                    percentile(100) / 1e3,
+                    failedSessions > 0 ? "\n" + failedSessions + " sessions failed" : "");
+        }
+    }
+
+    /**
+     * Connects {@code sessions} players, waits until all are connected, then
+     * has each send {@code commands} commands.
+     */
+    public static Result run(String host, int port, int sessions, int commands, long seed)
+            throws InterruptedException {
+        long[][] latencies = new long[sessions][];
+        CountDownLatch connected = new CountDownLatch(sessions);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger failed = new AtomicInteger();
+        long start;
+        try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions; i++) {
+                int player = i;
+                players.execute(() -> {
+                    try {
+                        latencies[player] = play(host, port, commands, new SplittableRandom(seed + player),
+                                connected, go);
+                    } catch (IOException | InterruptedException e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        latencies[player] = latencies[player] != null ? latencies[player] : new long[0];
+                    }
+                });
+            }
+            connected.await();
+            start = System.nanoTime();
+            go.countDown();
+        } // waits for every player
+        long elapsed = System.nanoTime() - start;
+
+        int total = 0;
+        for (long[] l : latencies) total += l.length;
+        long[] all = new long[total];
+        int n = 0;
+        for (long[] l : latencies) {
+            System.arraycopy(l, 0, all, n, l.length);
+            n += l.length;
+        }
+        Arrays.sort(all);
+        return new Result(sessions, all, elapsed, failed.get());
+    }
+
+    private static long[] play(String host, int port, int commands, SplittableRandom random,
+                               CountDownLatch connected, CountDownLatch go) throws IOException, InterruptedException {
+        long[] latencies = new long[commands];
+        boolean counted = false;
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            in.readLine(); // READY
+            connected.countDown();
+            counted = true;
+            go.await();
+            String command = "NEW 3 " + random.nextLong();
+            for (int i = 0; i < commands; i++) {
+                long t = System.nanoTime();
+                out.write(command);
+                out.write('\n');
+                out.flush();
+                String reply = in.readLine();
+                latencies[i] = System.nanoTime() - t;
+                if (reply == null) throw new IOException("Server closed the connection");
+                boolean over = reply.startsWith("WON") || reply.startsWith("LOST");
+                command = over ? "NEW 3 " + random.nextLong() : MOVES[random.nextInt(MOVES.length)];
+            }
+            out.write("QUIT\n");
+            out.flush();
+        } finally {
+            if (!counted) connected.countDown(); // so run() never waits on a player that failed to connect
+        }
+        return latencies;
+    }
+
+    // Usage: LoadGenerator [sessions] [commandsPerSession] [host port]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int commands = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        GameServer local = null;
+        String host;
+        int port;
+        if (args.length > 3) {
+            host = args[2];
+            port = Integer.parseInt(args[3]);
+        } else {
+            local = new GameServer(0, DungeonConfig.CLASSIC, new Leaderboard(Leaderboard.DEFAULT_SIZE)).start();
+            host = InetAddress.getLoopbackAddress().getHostAddress();
+            port = local.getPort();
+        }
+        try {
+            // A short run first so neither side is measured cold
+            run(host, port, Math.min(sessions, 100), Math.min(commands, 1_000), 1L);
+            System.out.println("=== MINI DUNGEON LOAD (" + host + ":" + port + ") ===");
+            System.out.println(run(host, port, sessions, commands, 42L));
+        } finally {
+            if (local != null) local.close();
+        }
+    }
+}
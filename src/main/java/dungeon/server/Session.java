@@ -0,0 +1,138 @@
+package dungeon.server;
+
+import dungeon.engine.Direction;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Grid;
+import dungeon.engine.Leaderboard;
+import dungeon.engine.MoveResult;
+import dungeon.engine.Player;
+import dungeon.engine.TextRenderer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One client's game. Each session owns its engine and nothing else, so
+ * sessions share no state except the server's leaderboard, which is
+ * thread-safe. Commands and replies are described on {@link GameServer}.
+ *
+ * <p>Only games on a seed the server drew are submitted to that leaderboard.
+ * A client that picks the seed knows every level and roll in advance, so
+ * its games are kept to a board of their own. For the same reason a seed
+ * the server drew is only sent once its game is over.
+ */
+final class Session {
+    private static final int DEFAULT_DIFFICULTY = 3;
+
+    private final DungeonConfig config;
+    private final Leaderboard leaderboard;
+    private GameEngine engine;
+    // The seed of a leaderboard game, sent with its last move
+    private long hiddenSeed;
+    private boolean seedHidden;
+
+    Session(DungeonConfig config, Leaderboard leaderboard) {
+        this.config = config;
+        this.leaderboard = leaderboard;
+    }
+
+    /** Appends the reply to one command line; returns false once the client has quit. */
+    boolean handle(String line, StringBuilder out) {
+        String[] words = line.trim().split("\\s+");
+        String command = words[0].toUpperCase();
+        if (command.length() == 1) {
+            Direction d = Direction.fromKey(command.charAt(0));
+            if (d != null) {
+                move(d, out);
+                return true;
+            }
+        }
+        switch (command) {
+            case "NEW" -> start(words, out);
+            case "MAP" -> map(out);
+            case "SCORES" -> scores(out);
+            case "QUIT" -> {
+                out.append("BYE\n");
+                return false;
+            }
+            default -> out.append("ERR unknown command: ").append(line.trim()).append('\n');
+        }
+        return true;
+    }
+
+    private void start(String[] words, StringBuilder out) {
+        int difficulty;
+        long seed;
+        try {
+            difficulty = words.length > 1 ? Integer.parseInt(words[1]) : DEFAULT_DIFFICULTY;
+            seed = words.length > 2 ? Long.parseLong(words[2]) : ThreadLocalRandom.current().nextLong();
+        } catch (NumberFormatException e) {
+            out.append("ERR usage: NEW [difficulty] [seed]\n");
+            return;
+        }
+        engine = GameEngine.headless(config, difficulty, seed);
+        seedHidden = words.length <= 2;
+        if (seedHidden) {
+            engine.setLeaderboard(leaderboard);
+            hiddenSeed = seed;
+            state("STARTED", out).append('\n');
+        } else {
+            state("STARTED", out).append(" seed=").append(seed).append('\n');
+        }
+    }
+
+    private void move(Direction d, StringBuilder out) {
+        if (engine == null || engine.isGameOver() || engine.isGameWon()) {
+            out.append("ERR no game in progress; send NEW\n");
+            return;
+        }
+        MoveResult r = engine.move(d);
+        String status;
+        if (r.has(MoveResult.WON)) {
+            status = "WON";
+        } else if (r.has(MoveResult.DIED | MoveResult.OUT_OF_STEPS)) {
+            status = "LOST";
+        } else {
+            status = r.moved() ? "MOVED" : "BLOCKED";
+        }
+        state(status, out);
+        if (seedHidden && (engine.isGameOver() || engine.isGameWon())) {
+            out.append(" seed=").append(hiddenSeed);
+            seedHidden = false;
+        }
+        out.append('\n');
+    }
+
+    private StringBuilder state(String status, StringBuilder out) {
+        Player p = engine.getPlayer();
+        return out.append(status)
+                .append(" hp=").append(p.getHp())
+                .append(" steps=").append(engine.getStepsRemaining())
+                .append(" score=").append(p.getScore())
+                .append(" level=").append(engine.getCurrentLevel())
+                .append(" x=").append(p.getX())
+                .append(" y=").append(p.getY());
+    }
+
+    private void map(StringBuilder out) {
+        if (engine == null) {
+            out.append("ERR no game in progress; send NEW\n");
+            return;
+        }
+        Grid grid = engine.getGrid();
+        Player p = engine.getPlayer();
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                out.append(x == p.getX() && y == p.getY() ? 'P' : TextRenderer.symbol(grid.getType(x, y)));
+            }
+            out.append('\n');
+        }
+        out.append(".\n");
+    }
+
+    private void scores(StringBuilder out) {
+        out.append("SCORES");
+        for (Leaderboard.Entry e : leaderboard.top()) out.append(' ').append(e.score());
+        out.append('\n');
+    }
+}
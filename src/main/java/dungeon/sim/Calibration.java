@@ -0,0 +1,132 @@
+package dungeon.sim;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Measures how hard each difficulty really is. It plays a large number of
+ * seeded games at every starting difficulty with one reference policy, then
+ * reports each rate with a confidence interval:
+ * <ul>
+ *   <li>win rate,</li>
+ *   <li>mean score,</li>
+ *   <li>the share of games lost to HP running out (any damage source),</li>
+ *   <li>the share lost to the step budget running out.</li>
+ * </ul>
+ * Games are played by {@link Simulator}. Each fork-join task fills its own
+ * {@link SimulationReport} and the reports are merged once the tasks join,
+ * so workers share nothing and the run scales with the pool size. A
+ * difficulty's games are played as level 1 at that difficulty and level 2
+ * at two more, as in a real game.
+ *
+ * <p>Rates use the Wilson score interval, which stays inside [0, 1] and
+ * behaves for rates near 0 or 1. The mean score uses the normal
+ * approximation, which is accurate at these sample sizes.
+ */
+public final class Calibration {
+    /** z for a two-sided 95% interval. */
+    public static final double Z_95 = 1.959963984540054;
+
+    public static final String CSV_HEADER = "difficulty,games,"
+            + "win_rate,win_low,win_high,"
+            + "mean_score,score_low,score_high,"
+            + "hp_death_rate,hp_death_low,hp_death_high,"
+            + "step_death_rate,step_death_low,step_death_high,"
+            + "stalled_rate,games_per_second";
+
+    /** A confidence interval. */
+    public record Interval(double low, double high) {
+        public boolean contains(double value) {
+            return value >= low && value <= high;
+        }
+    }
+
+    private Calibration() {}
+
+    /** Wilson score interval for {@code hits} successes in {@code n} trials. */
+    public static Interval wilson(long hits, long n, double z) {
+        if (n == 0) return new Interval(0, 1);
+        double p = (double) hits / n;
+        double z2 = z * z;
+        double centre = (p + z2 / (2 * n)) / (1 + z2 / n);
+        double half = z / (1 + z2 / n) * Math.sqrt(p * (1 - p) / n + z2 / (4.0 * n * n));
+        // Exact at the ends, where rounding would leave a hair above 0 or below 1
+        return new Interval(hits == 0 ? 0 : Math.max(0, centre - half), hits == n ? 1 : Math.min(1, centre + half));
+    }
+
+    /** Normal-approximation interval for a mean over {@code n} samples. */
+    public static Interval mean(double mean, double stdDev, long n, double z) {
+        double half = n == 0 ? 0 : z * stdDev / Math.sqrt(n);
+        return new Interval(mean - half, mean + half);
+    }
+
+    public static long hpDeaths(SimulationReport report) {
+        return report.getOutcomeCount(Outcome.KILLED_BY_TRAP)
+                + report.getOutcomeCount(Outcome.KILLED_BY_MELEE_MUTANT)
+                + report.getOutcomeCount(Outcome.KILLED_BY_RANGED_MUTANT);
+    }
+
+    /** One CSV line, without the line break, in the order of {@link #CSV_HEADER}. */
+    public static String csvRow(SimulationReport report, double z) {
+        long n = report.getGames();
+        long wins = report.getOutcomeCount(Outcome.WON);
+        long hp = hpDeaths(report);
+        long steps = report.getOutcomeCount(Outcome.OUT_OF_STEPS);
+        Interval win = wilson(wins, n, z);
+        Interval score = mean(report.getMeanScore(), report.getScoreStdDev(), n, z);
+        Interval hpDeath = wilson(hp, n, z);
+        Interval stepDeath = wilson(steps, n, z);
+        return String.format(Locale.ROOT,
+                "%d,%d,%.6f,%.6f,%.6f,%.4f,%.4f,%.4f,%.6f,%.6f,%.6f,%.6f,%.6f,%.6f,%.6f,%.0f",
+                report.getDifficulty(), n,
+                rate(wins, n), win.low(), win.high(),
+                report.getMeanScore(), score.low(), score.high(),
+                rate(hp, n), hpDeath.low(), hpDeath.high(),
+                rate(steps, n), stepDeath.low(), stepDeath.high(),
+                rate(report.getOutcomeCount(Outcome.STALLED), n), report.getGamesPerSecond());
+    }
+
+    public static void writeCsv(Collection<SimulationReport> reports, double z, Appendable out) throws IOException {
+        out.append(CSV_HEADER).append('\n');
+        for (SimulationReport r : reports) out.append(csvRow(r, z)).append('\n');
+    }
+
+    private static double rate(long count, long n) {
+        return n == 0 ? 0 : (double) count / n;
+    }
+
+    // Usage: Calibration [gamesPerDifficulty] [random|ladder|solver] [seed] [out.csv]
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String policyName = args.length > 1 ? args[1] : "ladder";
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : ThreadLocalRandom.current().nextLong();
+        Path out = args.length > 3 ? Path.of(args[3]) : null;
+        Supplier<MovePolicy> policies = Simulator.policies(policyName);
+
+        int workers = ForkJoinPool.commonPool().getParallelism();
+        System.err.println("=== MINI DUNGEON CALIBRATION (" + policyName + ", " + games
+                + " games per difficulty, " + workers + " workers, seed " + seed + ") ===");
+        long start = System.nanoTime();
+        Collection<SimulationReport> reports = new Simulator().runAllDifficulties(games, policies, seed).values();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (out != null) {
+            try (Writer w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                writeCsv(reports, Z_95, w);
+            }
+        } else {
+            writeCsv(reports, Z_95, System.out);
+        }
+        long total = reports.stream().mapToLong(SimulationReport::getGames).sum();
+        System.err.printf(Locale.ROOT, "%d games in %.1f s: %.0f games/s, %.0f per worker%n",
+                total, seconds, total / seconds, total / seconds / workers);
+    }
+}
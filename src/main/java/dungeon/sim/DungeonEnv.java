@@ -0,0 +1,208 @@
+package dungeon.sim;
+
+import dungeon.engine.Cell;
+import dungeon.engine.CellChangeListener;
+import dungeon.engine.Direction;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.MoveResult;
+import dungeon.engine.Player;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Gym-style environment around one headless engine, for training agents.
+ * Actions are {@link Direction} ordinals (0 up, 1 down, 2 left, 3 right).
+ * Moves go through {@link GameEngine#move}, so stepping logs nothing.
+ *
+ * <p>An observation is a flat row of ints. It has one per square, row by row:
+ * the square's {@link Cell.Type} ordinal, or {@link #PLAYER} where the player
+ * stands. Then come HP, steps remaining, score and level, at
+ * {@link #HP} and the following offsets past the squares. Observations are
+ * written into arrays or buffers the caller owns. Only squares that changed
+ * since the last write to the same target are rewritten, so a step costs a
+ * few writes rather than the whole map, and allocates nothing. The caller
+ * must therefore leave the last observation in place, or pass a different
+ * target. Only {@link #reset} builds a new engine.
+ *
+ * <p>Not thread-safe; {@link VecEnv} steps many of these in parallel, one per
+ * worker at a time.
+ */
+public class DungeonEnv implements CellChangeListener {
+    public static final int ACTIONS = 4;
+    /** Observation value of the player's square; every other square holds its type ordinal. */
+    public static final int PLAYER = Cell.Type.values().length;
+    /** Offsets of the scalars that follow the squares. */
+    public static final int HP = 0, STEPS = 1, SCORE = 2, LEVEL = 3;
+    private static final int SCALARS = 4;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Episodes where the agent only walks into walls are cut off, as in Simulator
+    private static final int MAX_BLOCKED_MOVES = 1_000;
+
+    /**
+     * Reward for one step: so much per point of score and per HP lost, plus a
+     * one-off amount when the episode is won or lost.
+     */
+    public record Rewards(float perScore, float perDamage, float win, float loss) {
+        public static final Rewards DEFAULT = new Rewards(1f, -0.5f, 10f, -10f);
+    }
+
+    private final DungeonConfig config;
+    private final int difficulty;
+    private final Rewards rewards;
+    private final int squares;
+
+    private GameEngine engine;
+    private boolean done = true;
+    private int blocked;
+
+    // Squares changed since the last write, as y * width + x; the whole map after a reset or new level
+    private final int[] dirty;
+    private final boolean[] marked;
+    private int dirtyCount;
+    private boolean allDirty = true;
+
+    // What the last observation was written into; a different target gets the whole map
+    private Object target;
+    private IntBuffer targetView;
+    private int targetOffset;
+
+    public DungeonEnv(DungeonConfig config, int difficulty) {
+        this(config, difficulty, Rewards.DEFAULT);
+    }
+
+    public DungeonEnv(DungeonConfig config, int difficulty, Rewards rewards) {
+        this.config = config;
+        this.difficulty = difficulty;
+        this.rewards = rewards;
+        this.squares = config.width() * config.height();
+        this.dirty = new int[squares];
+        this.marked = new boolean[squares];
+    }
+
+    /** Ints in one observation. */
+    public int observationSize() {
+        return squares + SCALARS;
+    }
+
+    /** Starts a new episode on the given seed. */
+    public void reset(long seed) {
+        if (engine != null) engine.setChangeListener(null);
+        engine = GameEngine.headless(config, difficulty, seed);
+        engine.setChangeListener(this);
+        done = false;
+        blocked = 0;
+        levelChanged();
+    }
+
+    public void reset(long seed, int[] obs, int offset) {
+        reset(seed);
+        observe(obs, offset);
+    }
+
+    /**
+     * Takes one action and returns its reward. Once {@link #isDone} is true,
+     * call {@link #reset} before stepping again.
+     */
+    public float step(int action) {
+        if (done) throw new IllegalStateException("Episode is over; call reset");
+        if (action < 0 || action >= ACTIONS) throw new IllegalArgumentException("No such action: " + action);
+        MoveResult r = engine.move(DIRECTIONS[action]);
+        float reward = r.getScoreGained() * rewards.perScore() + r.getDamage() * rewards.perDamage();
+        if (r.moved()) {
+            blocked = 0;
+        } else if (++blocked >= MAX_BLOCKED_MOVES) {
+            done = true;
+        }
+        if (r.has(MoveResult.WON)) {
+            reward += rewards.win();
+            done = true;
+        } else if (r.has(MoveResult.DIED | MoveResult.OUT_OF_STEPS)) {
+            reward += rewards.loss();
+            done = true;
+        }
+        return reward;
+    }
+
+    public float step(int action, int[] obs, int offset) {
+        float reward = step(action);
+        observe(obs, offset);
+        return reward;
+    }
+
+    public boolean isDone() { return done; }
+
+    // The engine behind the current episode; moving it directly bypasses reward and done tracking
+    public GameEngine getEngine() { return engine; }
+
+    /** Writes the observation into {@code obs} starting at {@code offset}. */
+    public void observe(int[] obs, int offset) {
+        if (obs != target) {
+            target = obs;
+            targetView = IntBuffer.wrap(obs);
+            allDirty = true;
+        }
+        write(offset);
+    }
+
+    /**
+     * Writes the observation as ints in the buffer's byte order, starting
+     * {@code offset} ints in. Parts of the buffer other envs write to are
+     * left alone, so envs can share one buffer.
+     */
+    public void observe(ByteBuffer obs, int offset) {
+        if (obs != target) {
+            target = obs;
+            targetView = obs.duplicate().order(obs.order()).clear().asIntBuffer();
+            allDirty = true;
+        }
+        write(offset);
+    }
+
+    private void write(int offset) {
+        if (offset != targetOffset) {
+            targetOffset = offset;
+            allDirty = true;
+        }
+        IntBuffer out = targetView;
+        int width = config.width();
+        Player p = engine.getPlayer();
+        int player = p.getY() * width + p.getX();
+        if (allDirty) {
+            for (int i = 0; i < squares; i++) out.put(offset + i, value(i, width, player));
+        } else {
+            for (int k = 0; k < dirtyCount; k++) {
+                int i = dirty[k];
+                out.put(offset + i, value(i, width, player));
+            }
+        }
+        for (int k = 0; k < dirtyCount; k++) marked[dirty[k]] = false;
+        dirtyCount = 0;
+        allDirty = false;
+
+        int s = offset + squares;
+        out.put(s + HP, p.getHp());
+        out.put(s + STEPS, engine.getStepsRemaining());
+        out.put(s + SCORE, p.getScore());
+        out.put(s + LEVEL, engine.getCurrentLevel());
+    }
+
+    private int value(int i, int width, int player) {
+        return i == player ? PLAYER : engine.getGrid().getType(i % width, i / width).ordinal();
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        int i = y * config.width() + x;
+        if (!marked[i]) {
+            marked[i] = true;
+            dirty[dirtyCount++] = i;
+        }
+    }
+
+    @Override
+    public void levelChanged() {
+        allDirty = true;
+    }
+}
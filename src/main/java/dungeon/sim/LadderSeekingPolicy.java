@@ -0,0 +1,76 @@
+package dungeon.sim;
+
+import dungeon.engine.Cell;
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Grid;
+import dungeon.engine.Player;
+import dungeon.engine.ThreatMap;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Walks greedily towards the ladder, stepping around walls, traps, melee
+ * mutants and squares in ranged mutants' reach where another move still
+ * closes the distance. Falls back to a random move when boxed in.
+ */
+public class LadderSeekingPolicy implements MovePolicy {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private int ladderX = -1;
+    private int ladderY = -1;
+
+    @Override
+    public void reset() {
+        ladderX = -1;
+        ladderY = -1;
+    }
+
+    @Override
+    public Direction nextMove(GameEngine engine, RandomGenerator random) {
+        Grid grid = engine.getGrid();
+        if (ladderX < 0 || grid.getType(ladderX, ladderY) != Cell.Type.LADDER) {
+            findLadder(grid);
+        }
+        Player player = engine.getPlayer();
+        ThreatMap threats = engine.getThreatMap();
+        if (ladderX < 0) {
+            return DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+        }
+
+        Direction best = null;
+        int bestCost = Integer.MAX_VALUE;
+        int start = random.nextInt(DIRECTIONS.length); // random tie-break
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            Direction d = DIRECTIONS[(start + i) % DIRECTIONS.length];
+            int x = player.getX() + d.getDx();
+            int y = player.getY() + d.getDy();
+            if (x < 0 || y < 0 || x >= grid.getWidth() || y >= grid.getHeight()) continue;
+            Cell.Type type = grid.getType(x, y);
+            if (type == Cell.Type.WALL) continue;
+
+            int cost = Math.abs(ladderX - x) + Math.abs(ladderY - y);
+            if (type == Cell.Type.TRAP || type == Cell.Type.MELEE_MUTANT) cost += 2;
+            cost += 2 * threats.count(x, y);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = d;
+            }
+        }
+        return best != null ? best : DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+    }
+
+    private void findLadder(Grid grid) {
+        ladderX = -1;
+        ladderY = -1;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.getType(x, y) == Cell.Type.LADDER) {
+                    ladderX = x;
+                    ladderY = y;
+                    return;
+                }
+            }
+        }
+    }
+}
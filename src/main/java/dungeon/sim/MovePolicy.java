@@ -0,0 +1,18 @@
+package dungeon.sim;
+
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Chooses the next move for a simulated player. A policy instance is only ever
+ * used by one thread at a time, so it may keep per-game state.
+ */
+public interface MovePolicy {
+
+    Direction nextMove(GameEngine engine, RandomGenerator random);
+
+    /** Called before each new game played with this instance. */
+    default void reset() {}
+}
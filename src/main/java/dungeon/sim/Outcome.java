@@ -0,0 +1,29 @@
+package dungeon.sim;
+
+import dungeon.engine.Cell;
+import dungeon.engine.GameEngine;
+
+/**
+ * How a simulated game finished.
+ */
+public enum Outcome {
+    WON,
+    KILLED_BY_TRAP,
+    KILLED_BY_MELEE_MUTANT,
+    KILLED_BY_RANGED_MUTANT,
+    OUT_OF_STEPS,
+    /** The policy kept walking into walls and the game was abandoned. */
+    STALLED;
+
+    public static Outcome of(GameEngine engine) {
+        if (engine.isGameWon()) return WON;
+        if (engine.getPlayer().getHp() <= 0) {
+            Cell.Type source = engine.getLastDamageSource();
+            if (source == Cell.Type.MELEE_MUTANT) return KILLED_BY_MELEE_MUTANT;
+            if (source == Cell.Type.RANGED_MUTANT) return KILLED_BY_RANGED_MUTANT;
+            return KILLED_BY_TRAP;
+        }
+        if (engine.getStepsRemaining() <= 0) return OUT_OF_STEPS;
+        return STALLED;
+    }
+}
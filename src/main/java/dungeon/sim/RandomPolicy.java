@@ -0,0 +1,18 @@
+package dungeon.sim;
+
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks one of the four directions uniformly at random.
+ */
+public class RandomPolicy implements MovePolicy {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    @Override
+    public Direction nextMove(GameEngine engine, RandomGenerator random) {
+        return DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+    }
+}
@@ -0,0 +1,110 @@
+package dungeon.sim;
+
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Checks recorded games, such as leaderboard submissions, by replaying them
+ * through fresh headless engines with {@link GameEngine#applyMoves}. A replay
+ * passes when every recorded move is used up before the game ends and the
+ * engine reaches the claimed score and result. Replays are checked in
+ * parallel across a fork-join pool; each one only needs its own engine.
+ *
+ * <p>Submissions are untrusted, so only replays of the configs a verifier
+ * accepts are played at all; anything else, and any replay that fails with
+ * an exception, simply fails.
+ */
+public class ReplayVerifier {
+    private final ForkJoinPool pool;
+    private final Set<DungeonConfig> accepted;
+
+    /** Accepts classic games only. */
+    public ReplayVerifier() {
+        this(ForkJoinPool.commonPool(), Set.of(DungeonConfig.CLASSIC));
+    }
+
+    public ReplayVerifier(ForkJoinPool pool, Set<DungeonConfig> accepted) {
+        this.pool = pool;
+        this.accepted = Set.copyOf(accepted);
+    }
+
+    /** Whether the replay is of an accepted config and reaches what it claims. */
+    public static boolean verify(Replay replay, Set<DungeonConfig> accepted) {
+        if (!accepted.contains(replay.config())) return false;
+        try {
+            GameEngine engine = GameEngine.headless(replay.config(), replay.difficulty(), replay.seed());
+            int applied = engine.applyMoves(replay.moves(), replay.moveCount());
+            return applied == replay.moveCount()
+                    && engine.getPlayer().getScore() == replay.score()
+                    && engine.isGameWon() == replay.won();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /** Whether each replay passes, in the order given. */
+    public boolean[] verifyAll(Replay[] replays) {
+        boolean[] passed = new boolean[replays.length];
+        pool.submit(() -> IntStream.range(0, replays.length).parallel()
+                .forEach(i -> passed[i] = verify(replays[i], accepted))).join();
+        return passed;
+    }
+
+    /** Like {@link #verifyAll(Replay[])} for encoded replays; ones that do not decode fail. */
+    public boolean[] verifyAll(ByteBuffer[] encoded) {
+        boolean[] passed = new boolean[encoded.length];
+        pool.submit(() -> IntStream.range(0, encoded.length).parallel().forEach(i -> {
+            try {
+                passed[i] = verify(Replay.decode(encoded[i].duplicate()), accepted);
+            } catch (IOException | RuntimeException e) {
+                passed[i] = false;
+            }
+        })).join();
+        return passed;
+    }
+
+    /** Plays one game with the policy while recording it. */
+    static Replay record(DungeonConfig config, int difficulty, long seed, MovePolicy policy) {
+        GameEngine engine = GameEngine.headless(config, difficulty, seed);
+        engine.startRecording();
+        Simulator.play(engine, policy, new SplittableRandom(~seed), new SimulationReport(difficulty));
+        return engine.getReplay();
+    }
+
+    // Usage: ReplayVerifier [games] [difficulty] [seed]
+    // Records games with the ladder-seeking policy, encodes them, then times decoding and verifying them all
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int difficulty = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : ThreadLocalRandom.current().nextLong();
+
+        ByteBuffer[] encoded = new ByteBuffer[games];
+        long bytes = 0;
+        ForkJoinPool.commonPool().submit(() -> IntStream.range(0, games).parallel().forEach(i ->
+                encoded[i] = record(DungeonConfig.CLASSIC, difficulty, Simulator.gameSeed(seed, i),
+                        new LadderSeekingPolicy()).encode())).join();
+        for (ByteBuffer b : encoded) bytes += b.remaining();
+
+        ReplayVerifier verifier = new ReplayVerifier();
+        verifier.verifyAll(encoded); // warm-up
+        long start = System.nanoTime();
+        boolean[] passed = verifier.verifyAll(encoded);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int failed = 0;
+        for (boolean p : passed) if (!p) failed++;
+
+        System.out.printf("=== REPLAY VERIFICATION (%d games, difficulty %d, %d workers, seed %d) ===%n",
+                games, difficulty, ForkJoinPool.commonPool().getParallelism(), seed);
+        System.out.printf("%.1f bytes per replay, %d failed, %.2f s, %,.0f games/minute%n",
+                (double) bytes / games, failed, seconds, games / seconds * 60);
+    }
+}
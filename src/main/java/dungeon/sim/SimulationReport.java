@@ -0,0 +1,111 @@
+package dungeon.sim;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated results for a batch of simulated games at one difficulty. Each
+ * worker fills its own report and the reports are merged at the end, so
+ * nothing here is synchronized.
+ */
+public class SimulationReport {
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final int difficulty;
+    private long games;
+    private long moves;
+    private long totalScore;
+    private long totalScoreSquares;
+    private long[] scoreCounts = new long[32];
+    private final long[] outcomeCounts = new long[OUTCOMES.length];
+    private long elapsedNanos;
+
+    public SimulationReport(int difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    void record(Outcome outcome, int score, int movesMade) {
+        games++;
+        moves += movesMade;
+        totalScore += score;
+        totalScoreSquares += (long) score * score;
+        outcomeCounts[outcome.ordinal()]++;
+        int bucket = Math.max(0, score);
+        if (bucket >= scoreCounts.length) {
+            scoreCounts = Arrays.copyOf(scoreCounts, Math.max(bucket + 1, scoreCounts.length * 2));
+        }
+        scoreCounts[bucket]++;
+    }
+
+    SimulationReport merge(SimulationReport other) {
+        games += other.games;
+        moves += other.moves;
+        totalScore += other.totalScore;
+        totalScoreSquares += other.totalScoreSquares;
+        if (other.scoreCounts.length > scoreCounts.length) {
+            scoreCounts = Arrays.copyOf(scoreCounts, other.scoreCounts.length);
+        }
+        for (int i = 0; i < other.scoreCounts.length; i++) scoreCounts[i] += other.scoreCounts[i];
+        for (int i = 0; i < outcomeCounts.length; i++) outcomeCounts[i] += other.outcomeCounts[i];
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getDifficulty() { return difficulty; }
+    public long getGames() { return games; }
+    public long getMoves() { return moves; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public long getOutcomeCount(Outcome outcome) { return outcomeCounts[outcome.ordinal()]; }
+
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) getOutcomeCount(Outcome.WON) / games;
+    }
+
+    public double getMeanScore() {
+        return games == 0 ? 0 : (double) totalScore / games;
+    }
+
+    // Sample standard deviation of the score
+    public double getScoreStdDev() {
+        if (games < 2) return 0;
+        double mean = getMeanScore();
+        return Math.sqrt(Math.max(0, (totalScoreSquares - games * mean * mean) / (games - 1)));
+    }
+
+    // Smallest score s such that at least p of the games scored s or less (p in 0..1)
+    public int getScorePercentile(double p) {
+        long target = (long) Math.ceil(p * games);
+        long seen = 0;
+        for (int s = 0; s < scoreCounts.length; s++) {
+            seen += scoreCounts[s];
+            if (seen >= target && seen > 0) return s;
+        }
+        return 0;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    public double getMovesPerSecond() {
+        return elapsedNanos == 0 ? 0 : moves * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("difficulty %2d | %d games | win %.1f%% | score mean %.2f p50 %d p90 %d max %d"
+                        + " | %.0f games/s %.0f moves/s",
+                difficulty, games, getWinRate() * 100, getMeanScore(),
+                getScorePercentile(0.5), getScorePercentile(0.9), getScorePercentile(1.0),
+                getGamesPerSecond(), getMovesPerSecond()));
+        for (Outcome o : OUTCOMES) {
+            if (o != Outcome.WON && getOutcomeCount(o) > 0) {
+                sb.append(String.format(" | %s %.1f%%", o, 100.0 * getOutcomeCount(o) / games));
+            }
+        }
+        return sb.toString();
+    }
+}
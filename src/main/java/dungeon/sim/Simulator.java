@@ -0,0 +1,151 @@
+package dungeon.sim;
+
+import dungeon.engine.Direction;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays batches of headless games across a fork-join pool. Every game gets its
+ * own {@link GameEngine#headless(DungeonConfig, int, long)} engine, so workers share nothing
+ * but the policy supplier. Game i of a run is seeded from the run seed and i,
+ * so a run repeated with the same seed gives the same report however the pool
+ * schedules it.
+ */
+public class Simulator {
+    // Leaf size for the fork-join split; big enough to amortise task overhead
+    private static final int BATCH_SIZE = 64;
+    // Caps games where the policy never makes a legal move
+    private static final int MAX_BLOCKED_MOVES = 1_000;
+
+    private final ForkJoinPool pool;
+    private final DungeonConfig config;
+
+    public Simulator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public Simulator(ForkJoinPool pool) {
+        this(pool, DungeonConfig.CLASSIC);
+    }
+
+    public Simulator(ForkJoinPool pool, DungeonConfig config) {
+        this.pool = pool;
+        this.config = config;
+    }
+
+    public SimulationReport run(int difficulty, int games, Supplier<? extends MovePolicy> policies) {
+        return run(difficulty, games, policies, ThreadLocalRandom.current().nextLong());
+    }
+
+    public SimulationReport run(int difficulty, int games, Supplier<? extends MovePolicy> policies, long seed) {
+        long start = System.nanoTime();
+        SimulationReport report = pool.invoke(new Batch(config, difficulty, seed, 0, games, policies));
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    // Runs the same number of games at every difficulty from 0 to 10
+    public Map<Integer, SimulationReport> runAllDifficulties(int gamesPerDifficulty,
+                                                             Supplier<? extends MovePolicy> policies, long seed) {
+        Map<Integer, SimulationReport> reports = new LinkedHashMap<>();
+        for (int d = 0; d <= 10; d++) {
+            reports.put(d, run(d, gamesPerDifficulty, policies, seed));
+        }
+        return reports;
+    }
+
+    // Seed for game i of a run; SplittableRandom's mixing keeps neighbouring games unrelated
+    static long gameSeed(long runSeed, int game) {
+        return new SplittableRandom(runSeed + game * 0x9E3779B97F4A7C15L).nextLong();
+    }
+
+    /**
+     * Plays one game to completion and records it. Returns the number of moves
+     * that were actually made.
+     */
+    static int play(GameEngine engine, MovePolicy policy, RandomGenerator random, SimulationReport into) {
+        policy.reset();
+        int moves = 0;
+        int blocked = 0;
+        while (!engine.isGameOver() && !engine.isGameWon() && blocked < MAX_BLOCKED_MOVES) {
+            Direction d = policy.nextMove(engine, random);
+            if (engine.move(d).moved()) {
+                moves++;
+                blocked = 0;
+            } else {
+                blocked++;
+            }
+        }
+        into.record(Outcome.of(engine), engine.getPlayer().getScore(), moves);
+        return moves;
+    }
+
+    private static class Batch extends RecursiveTask<SimulationReport> {
+        private final DungeonConfig config;
+        private final int difficulty;
+        private final long seed;
+        private final int from;
+        private final int to;
+        private final Supplier<? extends MovePolicy> policies;
+
+        Batch(DungeonConfig config, int difficulty, long seed, int from, int to,
+              Supplier<? extends MovePolicy> policies) {
+            this.config = config;
+            this.difficulty = difficulty;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.policies = policies;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (to - from <= BATCH_SIZE) {
+                SimulationReport report = new SimulationReport(difficulty);
+                MovePolicy policy = policies.get();
+                for (int i = from; i < to; i++) {
+                    long s = gameSeed(seed, i);
+                    // The policy gets its own stream so its draws never shift the engine's
+                    play(GameEngine.headless(config, difficulty, s), policy, new SplittableRandom(~s), report);
+                }
+                return report;
+            }
+            int mid = (from + to) >>> 1;
+            Batch left = new Batch(config, difficulty, seed, from, mid, policies);
+            left.fork();
+            SimulationReport right = new Batch(config, difficulty, seed, mid, to, policies).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // The policy named on a command line; anything unknown gets the ladder seeker
+    static Supplier<MovePolicy> policies(String name) {
+        return switch (name.toLowerCase()) {
+            case "random" -> RandomPolicy::new;
+            case "solver" -> SolverPolicy::new;
+            default -> LadderSeekingPolicy::new;
+        };
+    }
+
+    // Usage: Simulator [gamesPerDifficulty] [random|ladder|solver] [seed]
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        String policyName = args.length > 1 ? args[1] : "ladder";
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : ThreadLocalRandom.current().nextLong();
+        Supplier<MovePolicy> policies = policies(policyName);
+
+        System.out.println("=== MINI DUNGEON SIMULATION (" + policyName + ", "
+                + games + " games per difficulty, " + ForkJoinPool.commonPool().getParallelism()
+                + " workers, seed " + seed + ") ===");
+        new Simulator().runAllDifficulties(games, policies, seed).values().forEach(System.out::println);
+    }
+}
@@ -0,0 +1,28 @@
+package dungeon.sim;
+
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+import dungeon.engine.PathSolver;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Re-plans with {@link PathSolver} before every move, so consumed items and
+ * missed ranged shots are taken into account. When no route survives the
+ * worst case it falls back to {@link LadderSeekingPolicy}.
+ */
+public class SolverPolicy implements MovePolicy {
+    private final PathSolver solver = new PathSolver();
+    private final LadderSeekingPolicy fallback = new LadderSeekingPolicy();
+
+    @Override
+    public void reset() {
+        fallback.reset();
+    }
+
+    @Override
+    public Direction nextMove(GameEngine engine, RandomGenerator random) {
+        Direction d = solver.advise(engine);
+        return d != null ? d : fallback.nextMove(engine, random);
+    }
+}
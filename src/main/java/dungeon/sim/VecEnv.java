@@ -0,0 +1,179 @@
+package dungeon.sim;
+
+import dungeon.engine.DungeonConfig;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steps N {@link DungeonEnv}s in one call, spread across a fork-join pool.
+ * Env i writes its observation at {@code i * observationSize()} in one flat
+ * array or buffer, and its reward and done flag at index i.
+ *
+ * <p>An env whose episode ends is reset straight away on its next seed, and
+ * the observation written is the first one of the new episode; its done flag
+ * says the episode before it ended. Episode k of env i is seeded from the run
+ * seed and k * N + i, so a run depends only on the seed and the actions,
+ * never on how the pool schedules it.
+ *
+ * <p>The envs are split into a fixed set of chunks, each a task that is
+ * reinitialized and run again on every step. Stepping allocates nothing beyond
+ * what resets need. Too few envs to be worth splitting are stepped on the
+ * calling thread. Not thread-safe; one thread drives a VecEnv.
+ */
+public class VecEnv {
+    // Below this many envs per chunk, fork-join overhead outweighs the work
+    private static final int MIN_CHUNK = 64;
+
+    private final DungeonEnv[] envs;
+    private final int observationSize;
+    private final ForkJoinPool pool;
+    private final Chunk[] chunks;
+    private final RecursiveAction all;
+
+    private long runSeed;
+    private final long[] episodes;
+
+    // Arguments of the step in progress, read by the chunks
+    private int[] actions;
+    private int[] obs;
+    private ByteBuffer obsBuffer;
+    private float[] rewards;
+    private boolean[] dones;
+
+    public VecEnv(DungeonConfig config, int difficulty, int count) {
+        this(config, difficulty, count, DungeonEnv.Rewards.DEFAULT, ForkJoinPool.commonPool());
+    }
+
+    public VecEnv(DungeonConfig config, int difficulty, int count, DungeonEnv.Rewards rewards, ForkJoinPool pool) {
+        if (count < 1) throw new IllegalArgumentException("Need at least one env, got " + count);
+        this.envs = new DungeonEnv[count];
+        for (int i = 0; i < count; i++) envs[i] = new DungeonEnv(config, difficulty, rewards);
+        this.observationSize = envs[0].observationSize();
+        this.pool = pool;
+        this.episodes = new long[count];
+
+        int chunkCount = Math.max(1, Math.min(count / MIN_CHUNK, pool.getParallelism() * 4));
+        this.chunks = new Chunk[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c] = new Chunk((int) ((long) count * c / chunkCount), (int) ((long) count * (c + 1) / chunkCount));
+        }
+        this.all = new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(chunks);
+            }
+        };
+    }
+
+    public int size() { return envs.length; }
+
+    /** Ints in one env's observation; the flat array needs {@code size() * observationSize()}. */
+    public int observationSize() { return observationSize; }
+
+    public DungeonEnv get(int i) { return envs[i]; }
+
+    /** Starts every env on its first episode of a run with this seed and writes the observations. */
+    public void reset(long seed, int[] obs) {
+        checkLength(obs.length);
+        runSeed = seed;
+        for (int i = 0; i < envs.length; i++) {
+            episodes[i] = 0;
+            envs[i].reset(episodeSeed(seed, i), obs, i * observationSize);
+        }
+    }
+
+    public void reset(long seed, ByteBuffer obs) {
+        checkLength(obs.capacity() / Integer.BYTES);
+        runSeed = seed;
+        for (int i = 0; i < envs.length; i++) {
+            episodes[i] = 0;
+            envs[i].reset(episodeSeed(seed, i));
+            envs[i].observe(obs, i * observationSize);
+        }
+    }
+
+    /** Takes {@code actions[i]} in env i for every env. */
+    public void step(int[] actions, int[] obs, float[] rewards, boolean[] dones) {
+        checkLength(obs.length);
+        this.obs = obs;
+        this.obsBuffer = null;
+        run(actions, rewards, dones);
+    }
+
+    public void step(int[] actions, ByteBuffer obs, float[] rewards, boolean[] dones) {
+        checkLength(obs.capacity() / Integer.BYTES);
+        this.obs = null;
+        this.obsBuffer = obs;
+        run(actions, rewards, dones);
+    }
+
+    private void run(int[] actions, float[] rewards, boolean[] dones) {
+        if (actions.length < envs.length || rewards.length < envs.length || dones.length < envs.length) {
+            throw new IllegalArgumentException("Actions, rewards and dones need " + envs.length + " entries");
+        }
+        this.actions = actions;
+        this.rewards = rewards;
+        this.dones = dones;
+        try {
+            if (chunks.length == 1) {
+                stepRange(0, envs.length);
+            } else {
+                for (Chunk c : chunks) c.reinitialize();
+                all.reinitialize();
+                pool.invoke(all);
+            }
+        } finally {
+            this.actions = null;
+            this.obs = null;
+            this.obsBuffer = null;
+            this.rewards = null;
+            this.dones = null;
+        }
+    }
+
+    private void stepRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            DungeonEnv env = envs[i];
+            int offset = i * observationSize;
+            rewards[i] = env.step(actions[i]);
+            dones[i] = env.isDone();
+            if (dones[i]) env.reset(episodeSeed(runSeed, ++episodes[i] * envs.length + i));
+            if (obs != null) {
+                env.observe(obs, offset);
+            } else {
+                env.observe(obsBuffer, offset);
+            }
+        }
+    }
+
+    private void checkLength(int ints) {
+        if (ints < envs.length * observationSize) {
+            throw new IllegalArgumentException("Observations need " + envs.length * observationSize
+                    + " ints, got " + ints);
+        }
+    }
+
+    // Same mixing as Simulator.gameSeed, over a long episode number
+    static long episodeSeed(long runSeed, long episode) {
+        return new SplittableRandom(runSeed + episode * 0x9E3779B97F4A7C15L).nextLong();
+    }
+
+    private final class Chunk extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            stepRange(from, to);
+        }
+    }
+}
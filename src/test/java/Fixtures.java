@@ -0,0 +1,71 @@
+import dungeon.engine.Cell;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Grid;
+import dungeon.engine.GridView;
+import dungeon.engine.TextRenderer;
+import dungeon.engine.ThreatMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Maps, games and checks shared by the test classes. */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    // A map drawn in the text UI's symbols, one string per row
+    static Grid parse(String... rows) {
+        Grid grid = Grid.Backend.PACKED.create(rows[0].length(), rows.length);
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                char c = rows[y].charAt(x);
+                for (Cell.Type type : Cell.Type.values()) {
+                    if (TextRenderer.symbol(type) == c) grid.setType(x, y, type);
+                }
+            }
+        }
+        return grid;
+    }
+
+    // Open room with walls round the edge and the ladder at (ladderX, ladderY)
+    static Grid room(int width, int height, int ladderX, int ladderY) {
+        Grid grid = Grid.Backend.PACKED.create(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean edge = x == 0 || y == 0 || x == width - 1 || y == height - 1;
+                grid.setType(x, y, edge ? Cell.Type.WALL : Cell.Type.EMPTY);
+            }
+        }
+        grid.setType(ladderX, ladderY, Cell.Type.LADDER);
+        return grid;
+    }
+
+    // A classic game on a fixed seed with these squares laid out right of the player, starting next to them
+    static GameEngine besideStart(Cell.Type... types) {
+        GameEngine game = GameEngine.headless(0, 3L);
+        int x = game.getPlayer().getX();
+        int y = game.getPlayer().getY();
+        for (int i = 0; i < types.length; i++) game.getGrid().setType(x + 1 + i, y, types[i]);
+        return game;
+    }
+
+    static void assertSameSquares(GridView expected, GridView actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getType(x, y), actual.getType(x, y), x + "," + y);
+            }
+        }
+    }
+
+    // The engine's live threat map against one counted from scratch off its grid
+    static void assertThreatMapCurrent(GameEngine game, String context) {
+        ThreatMap expected = ThreatMap.of(game.getGrid());
+        ThreatMap live = game.getThreatMap();
+        for (int y = 0; y < game.getHeight(); y++) {
+            for (int x = 0; x < game.getWidth(); x++) {
+                assertEquals(expected.count(x, y), live.count(x, y), context + " at " + x + "," + y);
+            }
+        }
+    }
+}
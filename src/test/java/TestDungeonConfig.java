@@ -0,0 +1,60 @@
+import dungeon.engine.Cell;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDungeonConfig {
+
+    @Test
+    void testConfiguredMapSizeAndBudget() {
+        DungeonConfig config = new DungeonConfig(30, 20, 3, 0.05, 0.05, 0.03, 0.02, 250);
+        GameEngine big = GameEngine.headless(config, 4, 9L);
+        assertEquals(30, big.getWidth());
+        assertEquals(20, big.getHeight());
+        assertEquals(250, big.getStepsRemaining());
+        assertEquals(1, big.getPlayer().getX());
+        assertEquals(18, big.getPlayer().getY());
+
+        int ranged = 0;
+        int ladders = 0;
+        for (int y = 0; y < config.height(); y++) {
+            for (int x = 0; x < config.width(); x++) {
+                Cell.Type t = big.getGrid().getType(x, y);
+                if (t == Cell.Type.RANGED_MUTANT) ranged++;
+                if (t == Cell.Type.LADDER) ladders++;
+            }
+        }
+        assertEquals(config.rangedMutants(4), ranged);
+        assertEquals(1, ladders);
+        assertThrows(IllegalArgumentException.class, () -> DungeonConfig.ofSize(3, 10));
+    }
+
+    @Test
+    void testMapSizeLimits() {
+        int side = DungeonConfig.MAX_SIDE;
+        int fits = DungeonConfig.MAX_SQUARES / side;
+        assertEquals(side, DungeonConfig.ofSize(side, 4).width());
+        assertThrows(IllegalArgumentException.class, () -> DungeonConfig.ofSize(side + 1, 4));
+        assertThrows(IllegalArgumentException.class, () -> DungeonConfig.ofSize(4, side + 1));
+        assertEquals(fits, DungeonConfig.ofSize(side, fits).height());
+        assertThrows(IllegalArgumentException.class, () -> DungeonConfig.ofSize(side, fits + 1));
+        assertThrows(IllegalArgumentException.class, () -> DungeonConfig.ofSize(side, side));
+    }
+
+    @Test
+    void testLevelCountLimits() {
+        DungeonConfig c = DungeonConfig.CLASSIC;
+        int max = DungeonConfig.MAX_LEVELS;
+        assertEquals(max, new DungeonConfig(12, 12, max, c.goldDensity(), c.trapDensity(), c.meleeDensity(),
+                c.potionDensity(), 100).levels());
+        assertThrows(IllegalArgumentException.class, () -> new DungeonConfig(12, 12, max + 1, c.goldDensity(),
+                c.trapDensity(), c.meleeDensity(), c.potionDensity(), 100));
+        assertThrows(IllegalArgumentException.class, () -> new DungeonConfig(12, 12, 70_000, c.goldDensity(),
+                c.trapDensity(), c.meleeDensity(), c.potionDensity(), 100));
+        assertThrows(IllegalArgumentException.class, () -> new DungeonConfig(12, 12, 0, c.goldDensity(),
+                c.trapDensity(), c.meleeDensity(), c.potionDensity(), 100));
+    }
+}
@@ -0,0 +1,81 @@
+import dungeon.engine.Direction;
+import dungeon.engine.EngineMetrics;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Histogram;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEngineMetrics {
+
+    @Test
+    void testHistogramPercentilesStayWithinBucketError() {
+        Histogram h = new Histogram();
+        for (long v = 1; v <= 100_000; v++) h.record(v);
+        Histogram.Snapshot s = h.snapshot();
+        assertEquals(100_000, s.count());
+        assertEquals(100_000, s.max());
+        assertEquals(50_000.5, s.mean(), 1e-9);
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            double exact = p / 100 * 100_000;
+            long reported = s.percentile(p);
+            assertTrue(reported >= exact && reported <= exact * 1.125, p + ": " + reported);
+        }
+        assertEquals(100_000, s.percentile(100));
+        h.reset();
+        assertEquals(0, h.snapshot().count());
+    }
+
+    @Test
+    void testEngineIsInstrumentedOnlyWhileEnabled() throws IOException, JMException {
+        EngineMetrics.setEnabled(false);
+        EngineMetrics.reset();
+        GameEngine off = GameEngine.headless(5, 11L);
+        off.movePlayer(Direction.UP);
+        assertEquals(0, EngineMetrics.snapshot().moves());
+
+        EngineMetrics.setEnabled(true);
+        Path file = Files.createTempFile("minidungeon", ".sav");
+        try {
+            GameEngine ge = GameEngine.headless(5, 11L);
+            ge.movePlayer(Direction.UP);
+            ge.movePlayer(Direction.LEFT); // into the wall
+            ge.move(Direction.RIGHT);
+            ge.saveGame(file.toString());
+            assertNotNull(GameEngine.loadGame(file.toString()));
+
+            EngineMetrics.Snapshot s = EngineMetrics.snapshot();
+            assertEquals(3, s.moves());
+            assertEquals(1, s.blockedMoves());
+            assertEquals(3, s.moveNanos().count());
+            // move() logs nothing, so only the two logged moves count towards events per move
+            assertEquals(2, s.eventsPerMove().count());
+            assertTrue(s.eventsPerMove().percentile(100) >= 1);
+            assertEquals(1, s.levelGenerationNanos().count());
+            assertEquals(1, s.saveNanos().count());
+            assertEquals(Files.size(file), s.saveBytes().max());
+            assertEquals(Files.size(file), s.loadBytes().max());
+
+            EngineMetrics.registerMBean();
+            EngineMetrics.registerMBean();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(EngineMetrics.OBJECT_NAME);
+            assertEquals(3L, server.getAttribute(name, "Moves"));
+            assertEquals(1L, server.getAttribute(name, "Loads"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0, EngineMetrics.snapshot().moves());
+        } finally {
+            EngineMetrics.setEnabled(false);
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+import dungeon.engine.EventLog;
+import dungeon.engine.GameEngine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEventLog {
+
+    @Test
+    void testEventLogIsBoundedAndIncremental() {
+        GameEngine ge = new GameEngine(3, false);
+        EventLog log = ge.getEvents();
+        for (int i = 0; i < log.getCapacity() * 3; i++) {
+            ge.movePlayer(-1, 0); // wall bump, logged but no step used
+        }
+        assertEquals(log.getCapacity(), ge.getEventLog().size());
+
+        long seen = log.getSequence();
+        ge.movePlayer(0, -1);
+        List<String> fresh = log.formatSince(seen);
+        assertEquals("You moved up", fresh.get(0));
+        assertTrue(log.formatSince(log.getSequence()).isEmpty());
+    }
+}
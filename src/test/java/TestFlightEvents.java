@@ -0,0 +1,76 @@
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFlightEvents {
+
+    @Test
+    void testLifecycleEventsAreRecordedOnlyWhenEnabled() throws IOException {
+        Path save = Files.createTempFile("minidungeon", ".sav");
+        Path dump = Files.createTempFile("minidungeon", ".jfr");
+        try (Recording recording = new Recording()) {
+            // Not enabled: nothing from this game may be recorded
+            recording.start();
+            GameEngine.headless(4, 9L).movePlayer(Direction.UP);
+            recording.stop();
+            recording.dump(dump);
+            assertTrue(RecordingFile.readAllEvents(dump).stream()
+                    .noneMatch(e -> e.getEventType().getName().startsWith("dungeon.")));
+        }
+
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("LevelGenerated", "PlayerMoved", "GameSaved", "GameLoaded", "GameEnded")) {
+                recording.enable("dungeon." + name);
+            }
+            recording.start();
+            GameEngine ge = GameEngine.headless(4, 9L);
+            ge.movePlayer(Direction.LEFT); // into the wall
+            ge.saveGame(save.toString());
+            GameEngine.loadGame(save.toString());
+            int moves = 1;
+            for (; !ge.isGameOver() && !ge.isGameWon(); moves++) {
+                ge.move(moves % 2 == 1 ? Direction.RIGHT : Direction.LEFT);
+            }
+            recording.stop();
+            recording.dump(dump);
+
+            Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(e -> e.getEventType().getName().startsWith("dungeon."))
+                    .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                    .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+            RecordedEvent level = events.get("dungeon.LevelGenerated").get(0);
+            assertEquals(1, level.getInt("level"));
+            assertEquals(9L, level.getLong("seed"));
+            assertEquals("generated", level.getString("source"));
+
+            RecordedEvent wall = events.get("dungeon.PlayerMoved").get(0);
+            assertEquals("LEFT", wall.getString("direction"));
+            assertEquals("You tried to move but hit a wall", wall.getString("outcome"));
+            assertEquals(moves, events.get("dungeon.PlayerMoved").size());
+
+            assertEquals(Files.size(save), events.get("dungeon.GameSaved").get(0).getLong("bytes"));
+            assertFalse(events.get("dungeon.GameLoaded").get(0).getBoolean("legacy"));
+            RecordedEvent end = events.get("dungeon.GameEnded").get(0);
+            assertEquals(ge.isGameWon(), end.getBoolean("won"));
+            assertEquals(ge.getPlayer().getScore(), end.getInt("score"));
+            assertEquals(ge.getStepsRemaining(), end.getInt("stepsRemaining"));
+        } finally {
+            Files.deleteIfExists(save);
+            Files.deleteIfExists(dump);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 import dungeon.engine.Cell;
+import dungeon.engine.CellChangeListener;
 import dungeon.engine.GameEngine;
+import dungeon.engine.Grid;
 import dungeon.engine.Player;
 import dungeon.engine.cells.*;
 
@@ -124,4 +126,57 @@ public class TestGameEngine {
         ge.movePlayer(1, 0);
         assertEquals(start - 3, ge.getStepsRemaining());
     }
+
+    @Test
+    void testPackedBackendUsesFlyweights() {
+        GameEngine packed = new GameEngine(3, false, Grid.Backend.PACKED);
+        Cell[][] map = packed.getMap();
+        assertEquals(Cell.Type.WALL, map[0][0].getType());
+        assertSame(map[0][0], map[0][1]);
+
+        int beforeSteps = packed.getStepsRemaining();
+        assertTrue(packed.movePlayer(0, -1));
+        assertEquals(beforeSteps - 1, packed.getStepsRemaining());
+    }
+
+    @Test
+    void testSameSeedSameGame() {
+        GameEngine a = GameEngine.headless(10, 42L);
+        GameEngine b = GameEngine.headless(10, 42L);
+        int[][] moves = {{0, -1}, {1, 0}, {0, -1}, {1, 0}, {1, 0}, {0, -1}, {0, -1}, {1, 0}};
+        for (int round = 0; round < 5; round++) {
+            for (int[] m : moves) {
+                assertEquals(a.movePlayer(m[0], m[1]), b.movePlayer(m[0], m[1]));
+            }
+            for (int[] m : moves) {
+                a.movePlayer(-m[0], -m[1]);
+                b.movePlayer(-m[0], -m[1]);
+            }
+        }
+        assertEquals(a.getEventLog(), b.getEventLog());
+        assertEquals(a.getPlayer().getHp(), b.getPlayer().getHp());
+        Fixtures.assertSameSquares(a.getGrid(), b.getGrid());
+    }
+
+    @Test
+    void testChangeListenerReportsMovedAndConsumedSquares() {
+        java.util.List<String> changed = new java.util.ArrayList<>();
+        ge.setChangeListener(new CellChangeListener() {
+            @Override
+            public void cellChanged(int x, int y) { changed.add(x + "," + y); }
+
+            @Override
+            public void levelChanged() { changed.add("level"); }
+        });
+        ge.getMap()[9][1] = new GoldCell(1, 9);
+
+        ge.movePlayer(0, -1);
+        assertTrue(changed.contains("1,10"));
+        assertTrue(changed.contains("1,9"));
+        assertFalse(changed.contains("level"));
+
+        changed.clear();
+        ge.movePlayer(-1, 0); // wall, nothing changes
+        assertTrue(changed.isEmpty());
+    }
 }
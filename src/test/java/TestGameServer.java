@@ -0,0 +1,161 @@
+import dungeon.engine.Direction;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Leaderboard;
+import dungeon.server.GameServer;
+import dungeon.server.LoadGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGameServer {
+
+    // Plays a fixed seed and walk on one connection, with the moves sent in one pipelined burst
+    private static List<String> playScript(int port) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+            assertEquals("READY", in.readLine());
+            out.print("NEW 4 77\nU\nR\nU\nR\nU\nR\nL\nD\nMAP\nSCORES\nQUIT\n");
+            out.flush();
+            List<String> replies = new ArrayList<>();
+            for (String line; (line = in.readLine()) != null; ) replies.add(line);
+            return replies;
+        }
+    }
+
+    @Test
+    void testSessionsAreIsolatedAndDeterministic() throws Exception {
+        try (GameServer server = new GameServer(0, DungeonConfig.CLASSIC, new Leaderboard(5)).start();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<String>>> runs = new ArrayList<>();
+            for (int i = 0; i < 20; i++) runs.add(clients.submit(() -> playScript(server.getPort())));
+
+            List<String> first = runs.get(0).get();
+            assertTrue(first.get(0).startsWith("STARTED hp=10 steps=100"), first.get(0));
+            assertTrue(first.get(0).endsWith("seed=77"));
+            for (int i = 1; i <= 8; i++) assertTrue(first.get(i).matches("(MOVED|BLOCKED|WON|LOST|ERR) .*"));
+            // MAP: twelve rows of twelve symbols, then "."
+            assertEquals(12, first.get(9).length());
+            assertEquals(".", first.get(21));
+            assertTrue(first.get(22).startsWith("SCORES"));
+            assertEquals("BYE", first.get(23));
+            for (Future<List<String>> run : runs) assertEquals(first, run.get());
+        }
+    }
+
+    @Test
+    void testBadCommandsAndLoadGenerator() throws Exception {
+        try (GameServer server = new GameServer(0, DungeonConfig.CLASSIC, new Leaderboard(5)).start();
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            assertEquals("READY", in.readLine());
+            out.println("U");
+            assertTrue(in.readLine().startsWith("ERR"));
+            out.println("JUMP");
+            assertTrue(in.readLine().startsWith("ERR"));
+            out.println("NEW x");
+            assertTrue(in.readLine().startsWith("ERR"));
+
+            LoadGenerator.Result result = LoadGenerator.run(InetAddress.getLoopbackAddress().getHostAddress(),
+                    server.getPort(), 30, 200, 1L);
+            assertEquals(0, result.failedSessions());
+            assertEquals(30 * 200, result.latencies().length);
+            assertTrue(result.percentile(50) <= result.percentile(99));
+            assertTrue(server.getConnections() >= 31);
+        }
+    }
+
+    @Test
+    void testLongLinesAndIdleClientsAreDropped() throws Exception {
+        try (GameServer server = new GameServer(0, DungeonConfig.CLASSIC, new Leaderboard(5)).start()) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+                assertEquals("READY", in.readLine());
+                out.println("U".repeat(GameServer.MAX_LINE));
+                assertTrue(in.readLine().startsWith("ERR unknown command"));
+                out.println("U".repeat(GameServer.MAX_LINE + 1));
+                assertTrue(in.readLine().startsWith("ERR line longer"));
+                assertNull(in.readLine());
+            }
+
+            server.setIdleTimeout(100);
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                socket.setSoTimeout(10_000);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                assertEquals("READY", in.readLine());
+                assertNull(in.readLine());
+            }
+        }
+    }
+
+    @Test
+    void testChosenSeedGamesStayOffTheLeaderboard() throws Exception {
+        // A seed and random walk that ends the game with points, worked out offline
+        long seed = -1;
+        StringBuilder moves = new StringBuilder();
+        for (long s = 0; seed < 0; s++) {
+            GameEngine ge = GameEngine.headless(3, s);
+            SplittableRandom random = new SplittableRandom(s);
+            moves.setLength(0);
+            while (!ge.isGameOver() && !ge.isGameWon()) {
+                Direction d = Direction.values()[random.nextInt(4)];
+                moves.append(d.getKey()).append('\n');
+                ge.move(d);
+            }
+            if (ge.getPlayer().getScore() > 0) seed = s;
+        }
+
+        try (GameServer server = new GameServer(0, DungeonConfig.CLASSIC, new Leaderboard(5)).start();
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+            assertEquals("READY", in.readLine());
+            out.print("NEW 3 " + seed + "\n" + moves + "QUIT\n");
+            out.flush();
+            String last = null;
+            for (String line; (line = in.readLine()) != null && !line.equals("BYE"); ) last = line;
+            assertTrue(last.startsWith("WON") || last.startsWith("LOST"), last);
+            assertTrue(server.getLeaderboard().top().isEmpty());
+        }
+    }
+
+    @Test
+    void testDrawnSeedIsSentOnlyWhenTheGameEnds() throws Exception {
+        try (GameServer server = new GameServer(0, DungeonConfig.CLASSIC, new Leaderboard(5)).start();
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            assertEquals("READY", in.readLine());
+            out.println("NEW");
+            String started = in.readLine();
+            assertTrue(started.startsWith("STARTED") && !started.contains("seed="), started);
+
+            SplittableRandom random = new SplittableRandom(3);
+            String reply;
+            do {
+                out.println(Direction.values()[random.nextInt(4)].getKey());
+                reply = in.readLine();
+                boolean over = reply.startsWith("WON") || reply.startsWith("LOST");
+                assertEquals(over, reply.contains(" seed="), reply);
+            } while (!reply.startsWith("WON") && !reply.startsWith("LOST"));
+        }
+    }
+}
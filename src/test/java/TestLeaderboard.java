@@ -0,0 +1,55 @@
+import dungeon.engine.Leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLeaderboard {
+
+    @Test
+    void testConcurrentSubmissionsKeepTheBestScores() throws InterruptedException {
+        Leaderboard board = new Leaderboard(5);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            pool.execute(() -> {
+                for (int score = offset; score < 4000; score += 8) board.submit(score);
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Leaderboard.Entry> top = board.top();
+        assertEquals(5, top.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(3999 - i, top.get(i).score());
+        }
+        assertFalse(board.submit(10));
+        assertTrue(board.submit(5000));
+    }
+
+    @Test
+    void testLogSurvivesReopenAndIsCompacted() throws IOException {
+        Path log = Files.createTempFile("scores", ".log");
+        try {
+            try (Leaderboard board = Leaderboard.open(log, 3)) {
+                for (int score = 1; score <= 10; score++) board.submit(score);
+            }
+            try (Leaderboard reopened = Leaderboard.open(log, 3)) {
+                List<Leaderboard.Entry> top = reopened.top();
+                assertEquals(List.of(10, 9, 8), top.stream().map(Leaderboard.Entry::score).toList());
+            }
+            assertEquals(3, Files.readAllLines(log).size());
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Grid;
+import dungeon.engine.LevelPool;
+import dungeon.engine.PathSolver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLevelPool {
+
+    @Test
+    void testPooledGamePlaysItsSeed() throws InterruptedException {
+        try (LevelPool pool = new LevelPool(DungeonConfig.CLASSIC, Grid.Backend.PACKED, 2)) {
+            GameEngine pooled = new GameEngine(4, pool);
+            GameEngine plain = GameEngine.headless(4, pooled.getSeed());
+            Thread.sleep(50); // let the next level finish building
+
+            PathSolver.Route route = new PathSolver().solve(pooled);
+            assertNotNull(route);
+            for (int i = 0; i < route.length(); i++) {
+                pooled.movePlayer(route.move(i));
+                plain.movePlayer(route.move(i));
+            }
+            assertEquals(2, pooled.getCurrentLevel());
+            assertEquals(plain.getEventLog(), pooled.getEventLog());
+            Fixtures.assertSameSquares(plain.getGrid(), pooled.getGrid());
+            assertEquals(2, pool.getHits() + pool.getMisses());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+import dungeon.engine.Cell;
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+import dungeon.engine.MoveResult;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMoveResult {
+
+    @Test
+    void testMoveReportsOutcomesWithoutLogging() {
+        GameEngine game = Fixtures.besideStart(Cell.Type.GOLD, Cell.Type.MELEE_MUTANT, Cell.Type.LADDER);
+        long logged = game.getEvents().getSequence();
+
+        MoveResult r = game.move(Direction.LEFT);
+        assertEquals(MoveResult.BLOCKED, r.getFlags());
+        r = game.move(Direction.RIGHT);
+        assertEquals(MoveResult.MOVED | MoveResult.GOLD, r.getFlags());
+        assertEquals(2, r.getScoreGained());
+        r = game.move(Direction.RIGHT);
+        assertTrue(r.has(MoveResult.KILLED) && r.has(MoveResult.DAMAGED));
+        assertEquals(2, r.getDamage());
+        assertEquals(Cell.Type.MELEE_MUTANT, r.getEntered());
+        MoveResult copy = r.copy();
+        assertSame(r, game.move(Direction.RIGHT));
+        assertTrue(r.has(MoveResult.LEVEL_UP) && !r.ended());
+        assertTrue(copy.has(MoveResult.KILLED));
+        assertTrue(copy.describe().contains("2 HP"));
+
+        assertEquals(logged, game.getEvents().getSequence(), "move() must not log");
+        assertEquals(2, game.getCurrentLevel());
+        assertEquals(4, game.getPlayer().getScore());
+    }
+}
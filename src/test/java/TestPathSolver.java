@@ -0,0 +1,113 @@
+import dungeon.engine.Cell;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Grid;
+import dungeon.engine.LevelGenerator;
+import dungeon.engine.PathSolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPathSolver {
+
+    // Open 8x8 room with walls round the edge and the ladder in the top-right corner
+    private static Grid room() {
+        return Fixtures.room(8, 8, 6, 1);
+    }
+
+    @Test
+    void testShortestRouteInOpenRoom() {
+        PathSolver.Route route = new PathSolver().solve(room(), 1, 6, 10, 100);
+        assertNotNull(route);
+        assertEquals(10, route.length());
+        assertEquals(10, route.getHpLeft());
+    }
+
+    @Test
+    void testRouteAvoidsDamageAndRespectsBudget() {
+        Grid grid = room();
+        // A wall of traps across the room with one gap at the far left
+        for (int x = 2; x <= 6; x++) grid.setType(x, 4, Cell.Type.TRAP);
+        PathSolver solver = new PathSolver();
+
+        PathSolver.Route route = solver.solve(grid, 1, 6, 10, 100);
+        assertNotNull(route);
+        assertEquals(10, route.getHpLeft());
+
+        // With 2 HP every trap is fatal, and 10 steps leave none to spare
+        assertNotNull(solver.solve(grid, 1, 6, 2, 11));
+        assertNull(solver.solve(grid, 1, 6, 2, 10));
+        grid.setType(1, 4, Cell.Type.TRAP);
+        assertNull(solver.solve(grid, 1, 6, 2, 100));
+        assertNotNull(solver.solve(grid, 1, 6, 3, 100));
+    }
+
+    @Test
+    void testFollowingRoutesNeverLoses() {
+        PathSolver solver = new PathSolver();
+        for (long seed = 0; seed < 50; seed++) {
+            GameEngine ge = GameEngine.headless(5, seed);
+            int level = 0;
+            while (!ge.isGameOver() && !ge.isGameWon() && level != ge.getCurrentLevel()) {
+                level = ge.getCurrentLevel();
+                PathSolver.Route route = solver.solve(ge);
+                if (route == null) break; // no worst-case-safe route on this level
+                for (int i = 0; i < route.length(); i++) ge.movePlayer(route.move(i));
+                assertFalse(ge.isGameOver() && !ge.isGameWon(), "seed " + seed + " lost following " + route);
+            }
+        }
+    }
+
+    @Test
+    void testReusedSolverMatchesFreshAfterLargeMap() {
+        PathSolver reused = new PathSolver();
+        DungeonConfig big = DungeonConfig.ofSize(512, 512);
+        Grid bigGrid = LevelGenerator.generate(big, Grid.Backend.PACKED, 1, 3, new SplittableRandom(7));
+        assertEquals(String.valueOf(new PathSolver().solve(bigGrid, big.startX(), big.startY(), 10, big.stepBudget())),
+                String.valueOf(reused.solve(bigGrid, big.startX(), big.startY(), 10, big.stepBudget())));
+
+        // Small maps after the big one: buffers shrink, and routes must not change
+        DungeonConfig small = DungeonConfig.ofSize(12, 12);
+        for (long seed = 0; seed < 20; seed++) {
+            Grid grid = LevelGenerator.generate(small, Grid.Backend.PACKED, 1, 3, new SplittableRandom(seed));
+            assertEquals(String.valueOf(new PathSolver().solve(grid, small.startX(), small.startY(), 10, 100)),
+                    String.valueOf(reused.solve(grid, small.startX(), small.startY(), 10, 100)), "seed " + seed);
+        }
+    }
+
+    // Walks the route from (x, y) and returns where it ends, as "x,y"
+    private static String follow(PathSolver.Route route, int x, int y) {
+        for (int i = 0; i < route.length(); i++) {
+            x += route.move(i).getDx();
+            y += route.move(i).getDy();
+        }
+        return x + "," + y;
+    }
+
+    @Test
+    void testGoldDetourDoesNotHideShortRoute() {
+        // Gold makes the long way round cheaper, so squares near the ladder are reached again, more cheaply,
+        // after they were expanded. Only the direct 10-move routes fit 11 steps
+        Grid grid = Fixtures.parse(
+                "########",
+                "#.GGGGL#",
+                "#G....G#",
+                "#G#T.GG#",
+                "#.G###.#",
+                "#.G.GG##",
+                "#.G..G.#",
+                "########");
+        PathSolver solver = new PathSolver();
+        for (int budget : new int[] {11, 12, 100}) {
+            PathSolver.Route route = solver.solve(grid, 1, 6, 10, budget);
+            assertNotNull(route, "budget " + budget);
+            assertTrue(route.length() < budget, route + " for budget " + budget);
+            assertEquals("6,1", follow(route, 1, 6), route.toString());
+            assertTrue(solver.reachable(grid, 1, 6, 10, budget));
+        }
+        assertNull(solver.solve(grid, 1, 6, 10, 10));
+    }
+}
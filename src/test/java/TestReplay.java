@@ -0,0 +1,102 @@
+import dungeon.engine.Direction;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.PathSolver;
+import dungeon.engine.Replay;
+import dungeon.sim.ReplayVerifier;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestReplay {
+    private static final Set<DungeonConfig> ACCEPTED = Set.of(DungeonConfig.CLASSIC);
+
+    // Plays a seeded game with the solver, falling back to walking up when it has no route
+    private static GameEngine play(long seed) {
+        GameEngine ge = GameEngine.headless(4, seed);
+        ge.startRecording();
+        PathSolver solver = new PathSolver();
+        while (!ge.isGameOver() && !ge.isGameWon()) {
+            Direction d = solver.advise(ge);
+            if (!ge.movePlayer(d != null ? d : Direction.UP) && !ge.movePlayer(Direction.RIGHT)) break;
+        }
+        return ge;
+    }
+
+    @Test
+    void testReplayReproducesGameThroughCodec() throws IOException {
+        for (long seed = 0; seed < 20; seed++) {
+            GameEngine ge = play(seed);
+            Replay replay = ge.getReplay();
+            assertEquals(ge.getConfig().stepBudget() - ge.getStepsRemaining(), replay.moveCount());
+
+            Replay decoded = Replay.decode(replay.encode());
+            assertEquals(replay, decoded);
+            assertTrue(ReplayVerifier.verify(decoded, ACCEPTED), "seed " + seed);
+
+            GameEngine replayed = GameEngine.headless(4, seed);
+            assertEquals(replay.moveCount(), replayed.applyMoves(decoded.moves(), decoded.moveCount()));
+            assertEquals(ge.getPlayer().getX(), replayed.getPlayer().getX());
+            assertEquals(ge.getPlayer().getY(), replayed.getPlayer().getY());
+            assertEquals(ge.getPlayer().getHp(), replayed.getPlayer().getHp());
+            assertEquals(ge.getCurrentLevel(), replayed.getCurrentLevel());
+        }
+    }
+
+    @Test
+    void testTamperedReplaysFail() {
+        Replay replay = play(7).getReplay();
+        Replay inflated = new Replay(replay.config(), replay.difficulty(), replay.seed(), replay.moveCount(),
+                replay.moves(), replay.score() + 2, replay.won());
+        assertFalse(ReplayVerifier.verify(inflated, ACCEPTED));
+
+        ByteBuffer corrupt = replay.encode();
+        corrupt.put(30, (byte) (corrupt.get(30) ^ 1));
+        assertThrows(IOException.class, () -> Replay.decode(corrupt));
+        assertArrayEquals(new boolean[] {true, false},
+                new ReplayVerifier().verifyAll(new ByteBuffer[] {replay.encode(), corrupt}));
+    }
+
+    @Test
+    void testRecordingMustStartBeforeFirstMove() {
+        GameEngine ge = GameEngine.headless(0, 1L);
+        assertThrows(IllegalStateException.class, ge::getReplay);
+        assertTrue(ge.movePlayer(Direction.UP) || ge.movePlayer(Direction.RIGHT));
+        assertThrows(IllegalStateException.class, ge::startRecording);
+    }
+
+    @Test
+    void testDifficultyIsStoredUnsigned() throws IOException {
+        Replay high = new Replay(DungeonConfig.CLASSIC, 200, 5L, 0, new byte[0], 0, false);
+        assertEquals(200, Replay.decode(high.encode()).difficulty());
+        assertThrows(IllegalArgumentException.class,
+                () -> new Replay(DungeonConfig.CLASSIC, Replay.MAX_DIFFICULTY + 1, 5L, 0, new byte[0], 0, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Replay(DungeonConfig.CLASSIC, -1, 5L, 0, new byte[0], 0, false));
+    }
+
+    @Test
+    void testUntrustedReplaysAreRejected() {
+        Replay valid = play(3).getReplay();
+        Replay huge = new Replay(DungeonConfig.ofSize(2000, 2000), 3, 1L, 0, new byte[0], 0, false);
+        assertFalse(ReplayVerifier.verify(huge, ACCEPTED));
+        assertArrayEquals(new boolean[] {true, false},
+                new ReplayVerifier().verifyAll(new ByteBuffer[] {valid.encode(), huge.encode()}));
+
+        // A forged move count with a valid checksum is refused before anything is sized from it
+        ByteBuffer forged = valid.encode();
+        int countAt = forged.limit() - 4 - Replay.packedLength(valid.moveCount()) - 4;
+        forged.putInt(countAt, Integer.MAX_VALUE);
+        CRC32 crc = new CRC32();
+        crc.update(forged.duplicate().limit(forged.limit() - 4));
+        forged.putInt(forged.limit() - 4, (int) crc.getValue());
+        IOException e = assertThrows(IOException.class, () -> Replay.decode(forged));
+        assertTrue(e.getMessage().contains("move count"), e.getMessage());
+    }
+}
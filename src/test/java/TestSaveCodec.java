@@ -0,0 +1,115 @@
+import dungeon.engine.Cell;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Grid;
+import dungeon.engine.SaveCodec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSaveCodec {
+
+    @Test
+    void testRoundTripKeepsGameState() throws IOException {
+        GameEngine ge = GameEngine.headless(6, 7L);
+        ge.movePlayer(0, -1);
+        ge.movePlayer(1, 0);
+
+        Path file = Files.createTempFile("minidungeon", ".sav");
+        try {
+            ge.saveGame(file.toString());
+            GameEngine loaded = GameEngine.loadGame(file.toString());
+            assertNotNull(loaded);
+            assertEquals(ge.getSeed(), loaded.getSeed());
+            assertEquals(ge.getStepsRemaining(), loaded.getStepsRemaining());
+            assertEquals(ge.getPlayer().getX(), loaded.getPlayer().getX());
+            assertEquals(ge.getPlayer().getY(), loaded.getPlayer().getY());
+            assertEquals(ge.getPlayer().getHp(), loaded.getPlayer().getHp());
+            assertEquals(ge.getEventLog(), loaded.getEventLog());
+            for (int y = 0; y < ge.getSize(); y++) {
+                for (int x = 0; x < ge.getSize(); x++) {
+                    // loading clears whatever the player is standing on
+                    if (x == ge.getPlayer().getX() && y == ge.getPlayer().getY()) continue;
+                    assertEquals(ge.getGrid().getType(x, y), loaded.getGrid().getType(x, y));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testCorruptSaveIsRejected() {
+        ByteBuffer data = SaveCodec.encode(GameEngine.headless(3, 1L));
+        data.put(30, (byte) (data.get(30) ^ 0x40));
+        assertThrows(IOException.class, () -> SaveCodec.decode(data));
+    }
+
+    @Test
+    void testGridPacksTwoCellsPerByte() {
+        ByteBuffer data = SaveCodec.encode(GameEngine.headless(3, 1L));
+        assertTrue(Cell.Type.values().length <= 16);
+        assertTrue(data.remaining() < 144 + 200, "save was " + data.remaining() + " bytes");
+    }
+
+    @Test
+    void testLegacySavesAreFiltered() throws IOException {
+        Path file = Files.createTempFile("minidungeon", ".sav");
+        try {
+            for (Grid.Backend backend : Grid.Backend.values()) {
+                GameEngine ge = new GameEngine(3, false, backend);
+                ge.movePlayer(1, 0);
+                writeSerialized(file, ge);
+                GameEngine loaded = SaveCodec.read(file);
+                assertEquals(ge.getPlayer().getX(), loaded.getPlayer().getX(), backend.name());
+                assertEquals(ge.getEventLog(), loaded.getEventLog(), backend.name());
+            }
+
+            // Classes outside the game and plain collections are refused before they are built
+            HashMap<String, Object> foreign = new HashMap<>();
+            foreign.put("file", new File("x"));
+            writeSerialized(file, foreign);
+            assertThrows(InvalidClassException.class, () -> SaveCodec.read(file));
+
+            // So is nesting deeper than any save needs
+            List<Object> deep = new ArrayList<>();
+            for (int i = 0; i < 100; i++) deep = new ArrayList<>(List.of(deep));
+            writeSerialized(file, deep);
+            assertThrows(InvalidClassException.class, () -> SaveCodec.read(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeSerialized(Path file, Object o) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file))) {
+            out.writeObject(o);
+        }
+    }
+
+    @Test
+    void testDifficultyAndLevelReadUnsigned() throws IOException {
+        ByteBuffer data = SaveCodec.encode(GameEngine.headless(3, 1L));
+        // difficulty and level follow magic, version, flags, backend, seed and combat draws
+        data.put(23, (byte) 200).put(24, (byte) 130);
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate().limit(data.limit() - 4));
+        data.putInt(data.limit() - 4, (int) crc.getValue());
+
+        GameEngine loaded = SaveCodec.decode(data);
+        assertEquals(200, loaded.getDifficulty());
+        assertEquals(130, loaded.getCurrentLevel());
+    }
+}
@@ -0,0 +1,135 @@
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.sim.Calibration;
+import dungeon.sim.DungeonEnv;
+import dungeon.sim.LadderSeekingPolicy;
+import dungeon.sim.Outcome;
+import dungeon.sim.RandomPolicy;
+import dungeon.sim.SimulationReport;
+import dungeon.sim.Simulator;
+import dungeon.sim.VecEnv;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSimulator {
+
+    @Test
+    void testEveryGameIsCounted() {
+        SimulationReport report = new Simulator().run(5, 500, RandomPolicy::new);
+        assertEquals(500, report.getGames());
+        long total = 0;
+        for (Outcome o : Outcome.values()) total += report.getOutcomeCount(o);
+        assertEquals(500, total);
+        assertTrue(report.getMoves() > 0);
+    }
+
+    @Test
+    void testLadderSeekingUsuallyWinsOnEasy() {
+        SimulationReport report = new Simulator().run(0, 200, LadderSeekingPolicy::new);
+        assertTrue(report.getWinRate() > 0.5, "win rate was " + report.getWinRate());
+    }
+
+    @Test
+    void testSameSeedSameReport() {
+        Simulator sim = new Simulator();
+        SimulationReport a = sim.run(7, 300, RandomPolicy::new, 1234L);
+        SimulationReport b = sim.run(7, 300, RandomPolicy::new, 1234L);
+        assertEquals(a.getMoves(), b.getMoves());
+        assertEquals(a.getMeanScore(), b.getMeanScore(), 0.0);
+        for (Outcome o : Outcome.values()) {
+            assertEquals(a.getOutcomeCount(o), b.getOutcomeCount(o));
+        }
+    }
+
+    @Test
+    void testEnvObservationTracksEngine() {
+        DungeonEnv env = new DungeonEnv(DungeonConfig.CLASSIC, 4);
+        int size = env.observationSize();
+        int[] obs = new int[size + 3];
+        env.reset(99L, obs, 3);
+        SplittableRandom random = new SplittableRandom(5);
+        float total = 0;
+        while (!env.isDone()) {
+            total += env.step(random.nextInt(DungeonEnv.ACTIONS), obs, 3);
+            GameEngine engine = env.getEngine();
+            int[] fresh = new int[size];
+            int w = engine.getWidth();
+            for (int i = 0; i < w * engine.getHeight(); i++) {
+                boolean player = i == engine.getPlayer().getY() * w + engine.getPlayer().getX();
+                fresh[i] = player ? DungeonEnv.PLAYER : engine.getGrid().getType(i % w, i / w).ordinal();
+            }
+            assertArrayEquals(Arrays.copyOfRange(fresh, 0, size - 4), Arrays.copyOfRange(obs, 3, 3 + size - 4));
+            assertEquals(engine.getPlayer().getHp(), obs[3 + size - 4 + DungeonEnv.HP]);
+            assertEquals(engine.getStepsRemaining(), obs[3 + size - 4 + DungeonEnv.STEPS]);
+        }
+        assertThrows(IllegalStateException.class, () -> env.step(0));
+        assertNotEquals(0f, total);
+    }
+
+    @Test
+    void testVecEnvIsDeterministicAndMatchesBufferOutput() {
+        int n = 300;
+        VecEnv a = new VecEnv(DungeonConfig.CLASSIC, 3, n);
+        VecEnv b = new VecEnv(DungeonConfig.CLASSIC, 3, n);
+        int[] obsA = new int[n * a.observationSize()];
+        ByteBuffer obsB = ByteBuffer.allocateDirect(obsA.length * Integer.BYTES);
+        a.reset(7L, obsA);
+        b.reset(7L, obsB);
+        int[] actions = new int[n];
+        float[] rewardsA = new float[n], rewardsB = new float[n];
+        boolean[] donesA = new boolean[n], donesB = new boolean[n];
+        SplittableRandom random = new SplittableRandom(11);
+        int episodes = 0;
+        for (int t = 0; t < 400; t++) {
+            for (int i = 0; i < n; i++) actions[i] = random.nextInt(DungeonEnv.ACTIONS);
+            a.step(actions, obsA, rewardsA, donesA);
+            b.step(actions, obsB, rewardsB, donesB);
+            assertArrayEquals(donesA, donesB);
+            for (int i = 0; i < n; i++) {
+                assertEquals(rewardsA[i], rewardsB[i]);
+                if (donesA[i]) episodes++;
+            }
+        }
+        int[] fromBuffer = new int[obsA.length];
+        obsB.asIntBuffer().get(fromBuffer);
+        assertArrayEquals(obsA, fromBuffer);
+        assertTrue(episodes > n, "only " + episodes + " episodes ended");
+    }
+
+    @Test
+    void testCalibrationIntervalsAndCsv() throws Exception {
+        Calibration.Interval none = Calibration.wilson(0, 1000, Calibration.Z_95);
+        assertEquals(0.0, none.low());
+        assertTrue(none.high() > 0 && none.high() < 0.01);
+        Calibration.Interval small = Calibration.wilson(30, 100, Calibration.Z_95);
+        Calibration.Interval large = Calibration.wilson(3000, 10_000, Calibration.Z_95);
+        assertTrue(small.contains(0.3) && large.contains(0.3));
+        assertTrue(large.high() - large.low() < small.high() - small.low());
+
+        SimulationReport report = new Simulator().run(6, 2000, LadderSeekingPolicy::new, 99L);
+        String[] columns = Calibration.CSV_HEADER.split(",");
+        String[] row = Calibration.csvRow(report, Calibration.Z_95).split(",");
+        assertEquals(columns.length, row.length);
+        assertEquals("6", row[0]);
+        assertEquals("2000", row[1]);
+        double win = Double.parseDouble(row[2]);
+        assertEquals(report.getWinRate(), win, 1e-6);
+        assertTrue(Double.parseDouble(row[3]) <= win && win <= Double.parseDouble(row[4]));
+        double score = Double.parseDouble(row[5]);
+        assertTrue(Double.parseDouble(row[6]) <= score && score <= Double.parseDouble(row[7]));
+        // Every game is won, killed, out of steps or stalled
+        double total = win + Double.parseDouble(row[8]) + Double.parseDouble(row[11]) + Double.parseDouble(row[14]);
+        assertEquals(1.0, total, 1e-5);
+
+        StringBuilder csv = new StringBuilder();
+        Calibration.writeCsv(List.of(report, report), Calibration.Z_95, csv);
+        assertEquals(3, csv.toString().split("\n").length);
+    }
+}
@@ -0,0 +1,79 @@
+import dungeon.engine.Direction;
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.GameEngine;
+import dungeon.engine.GameSnapshot;
+import dungeon.engine.Grid;
+import dungeon.engine.Leaderboard;
+import dungeon.engine.PathSolver;
+import dungeon.sim.ReplayVerifier;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSnapshots {
+
+    @Test
+    void testUndoRestoresEarlierSnapshots() {
+        GameEngine game = GameEngine.headless(DungeonConfig.ofSize(30, 30), 5, 21L);
+        game.setHistoryLimit(50);
+        GameSnapshot start = game.snapshot();
+        Direction[] walk = {Direction.UP, Direction.RIGHT, Direction.UP, Direction.RIGHT, Direction.UP};
+        int moves = 0;
+        for (int i = 0; i < 20 && !game.isGameOver() && !game.isGameWon(); i++) {
+            if (game.movePlayer(walk[i % walk.length])) moves++;
+        }
+        GameSnapshot end = game.snapshot();
+        assertEquals(moves, game.getHistorySize());
+
+        while (game.undo()) { }
+        assertEquals(start.playerX(), game.getPlayer().getX());
+        assertEquals(start.playerY(), game.getPlayer().getY());
+        assertEquals(start.hp(), game.getPlayer().getHp());
+        assertEquals(start.stepsRemaining(), game.getStepsRemaining());
+        Fixtures.assertSameSquares(start.grid(), game.getGrid());
+
+        // Snapshots never change, and going forward again lands on the same state
+        game.restore(end);
+        assertEquals(end.hp(), game.getPlayer().getHp());
+        assertEquals(end.score(), game.getPlayer().getScore());
+        assertEquals(end.stepsRemaining(), game.getStepsRemaining());
+        assertSame(end.grid(), game.snapshot().grid());
+        assertFalse((Object) end.grid() instanceof Grid);
+    }
+
+    @Test
+    void testEndedGameCannotBeUndone() {
+        PathSolver solver = new PathSolver();
+        int won = 0;
+        for (long seed = 0; seed < 20; seed++) {
+            GameEngine game = GameEngine.headless(4, seed);
+            Leaderboard board = new Leaderboard(5);
+            game.setLeaderboard(board);
+            game.setHistoryLimit(1000);
+            game.startRecording();
+            GameSnapshot start = game.snapshot();
+            while (!game.isGameOver() && !game.isGameWon()) {
+                // A step taken back mid-game leaves no trace in the replay
+                if (game.movePlayer(Direction.DOWN) && !game.isGameOver() && !game.isGameWon()) {
+                    assertTrue(game.undo());
+                }
+                if (game.isGameOver() || game.isGameWon()) break;
+                Direction d = solver.advise(game);
+                if (d == null) break;
+                game.movePlayer(d);
+            }
+            if (!game.isGameOver() && !game.isGameWon()) continue;
+
+            int submitted = board.top().size();
+            assertFalse(game.undo(), "seed " + seed);
+            assertThrows(IllegalStateException.class, () -> game.restore(start));
+            assertEquals(submitted, board.top().size());
+            assertTrue(ReplayVerifier.verify(game.getReplay(), Set.of(DungeonConfig.CLASSIC)), "seed " + seed);
+            if (game.isGameWon()) won++;
+        }
+        assertTrue(won > 0);
+    }
+}
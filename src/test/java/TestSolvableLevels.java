@@ -0,0 +1,46 @@
+import dungeon.engine.DungeonConfig;
+import dungeon.engine.EngineMetrics;
+import dungeon.engine.GameEngine;
+import dungeon.engine.LevelGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSolvableLevels {
+
+    @Test
+    void testSolvableLevelsCanAlwaysBeCleared() {
+        // Dense enough in traps that plain generation often walls the ladder off
+        DungeonConfig config = new DungeonConfig(12, 12, 2, 0.05, 0.35, 0.03, 0.02, 100).withSolvable(true);
+        int plainFailures = 0;
+        for (long seed = 0; seed < 40; seed++) {
+            GameEngine plain = GameEngine.headless(config.withSolvable(false), 10, seed);
+            if (!LevelGenerator.isSolvable(config, plain.getGrid(), 10, 100)) plainFailures++;
+
+            GameEngine a = GameEngine.headless(config, 10, seed);
+            GameEngine b = GameEngine.headless(config, 10, seed);
+            assertTrue(LevelGenerator.isSolvable(config, a.getGrid(), 10, 100), "seed " + seed);
+            Fixtures.assertSameSquares(a.getGrid(), b.getGrid());
+        }
+        assertTrue(plainFailures > 0);
+    }
+
+    @Test
+    void testLevelThatCannotBeMadeSolvableIsFlagged() {
+        // Traps everywhere and one step: only a ladder next to the start would do
+        DungeonConfig config = new DungeonConfig(100, 100, 1, 0, 1, 0, 0, 1).withSolvable(true);
+        EngineMetrics.setEnabled(true);
+        EngineMetrics.reset();
+        try {
+            GameEngine ge = GameEngine.headless(config, 0, 3L);
+            assertTrue(ge.isLevelUnsolvable());
+            assertFalse(LevelGenerator.isSolvable(config, ge.getGrid(), 10, 1));
+            assertTrue(ge.getEventLog().contains("No safe route to the ladder was found on Level 1"));
+            assertEquals(1, EngineMetrics.snapshot().unsolvableLevels());
+        } finally {
+            EngineMetrics.setEnabled(false);
+        }
+        assertFalse(GameEngine.headless(DungeonConfig.CLASSIC.withSolvable(true), 0, 3L).isLevelUnsolvable());
+    }
+}
@@ -0,0 +1,44 @@
+import dungeon.engine.Grid;
+import dungeon.engine.TextRenderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTextRenderer {
+
+    private static Grid room() {
+        return Fixtures.room(4, 4, 2, 1);
+    }
+
+    @Test
+    void testPlainFrameMatchesTextUi() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TextRenderer renderer = new TextRenderer(out, false);
+        renderer.line("> Generated Level 1");
+        renderer.render(room(), 1, 2);
+        assertEquals("> Generated Level 1\n# # # # \n# . L # \n# P . # \n# # # # \n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testAnsiModeOnlyRedrawsChangedSquares() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TextRenderer renderer = new TextRenderer(out, true);
+        Grid grid = room();
+        renderer.render(grid, 1, 2);
+        out.reset();
+
+        renderer.line("> You moved right");
+        renderer.render(grid, 2, 2);
+        // Old square, then the new one right after it without a cursor move, then the log area
+        assertEquals("\033[3;3H. P \033[5;1H\033[J> You moved right\n", out.toString(StandardCharsets.UTF_8));
+
+        out.reset();
+        renderer.render(grid, 2, 2);
+        assertEquals("\033[5;1H\033[J", out.toString(StandardCharsets.UTF_8));
+    }
+}
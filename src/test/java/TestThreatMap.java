@@ -0,0 +1,67 @@
+import dungeon.engine.Cell;
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+import dungeon.engine.PathSolver;
+import dungeon.engine.Player;
+import dungeon.engine.PositionIndex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestThreatMap {
+
+    @Test
+    void testPositionIndexCrossQuery() {
+        PositionIndex index = new PositionIndex(200, 200);
+        index.add(100, 98);  // above, distance 2
+        index.add(97, 100);  // left, distance 3
+        index.add(102, 100); // right, distance 2
+        index.add(150, 100); // same row, too far
+        index.add(102, 102); // diagonal, never in range
+        index.remove(97, 100);
+
+        List<String> hits = new java.util.ArrayList<>();
+        int found = index.forEachInCross(100, 100, 2, 3, (x, y) -> hits.add(x + "," + y));
+        assertEquals(2, found);
+        assertEquals(List.of("100,98", "102,100"), hits);
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testThreatMapFollowsMutantsThroughMovesAndUndo() {
+        SplittableRandom random = new SplittableRandom(5);
+        Direction[] directions = Direction.values();
+        PathSolver solver = new PathSolver();
+        for (long seed = 0; seed < 30; seed++) {
+            GameEngine game = GameEngine.headless(10, seed);
+            game.setHistoryLimit(5);
+            for (int i = 0; i < 60 && !game.isGameOver() && !game.isGameWon(); i++) {
+                if (i % 7 == 6) {
+                    game.undo();
+                } else {
+                    game.move(directions[random.nextInt(4)]);
+                }
+                Fixtures.assertThreatMapCurrent(game, "seed " + seed);
+            }
+            // The engine's threat map and one found from the grid give the same route
+            Player p = game.getPlayer();
+            PathSolver.Route fromEngine = solver.solve(game);
+            PathSolver.Route fromGrid = solver.solve(game.getGrid(), p.getX(), p.getY(), p.getHp(),
+                    game.getStepsRemaining());
+            assertEquals(fromGrid == null, fromEngine == null);
+            if (fromGrid != null) assertEquals(fromGrid.toString(), fromEngine.toString());
+        }
+    }
+
+    @Test
+    void testMutantWrittenStraightIntoGridLeavesThreatMapValid() {
+        GameEngine game = Fixtures.besideStart(Cell.Type.RANGED_MUTANT); // not indexed
+        game.move(Direction.RIGHT);
+        assertEquals(Cell.Type.EMPTY, game.getGrid().getType(2, game.getPlayer().getY()));
+        Fixtures.assertThreatMapCurrent(game, "after the kill");
+    }
+}